@@ -0,0 +1,13 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.io.IOException;
+
+/**
+ * Blocking reverse geocoder. The plugin wraps android.location.Geocoder; tests use a stub.
+ * Implementations are called on a background thread.
+ */
+interface AddressLookup {
+
+    /** Returns the first address line for the position, or null when there is none. */
+    String lookup(double latitude, double longitude) throws IOException;
+}
@@ -0,0 +1,116 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread-safe LRU cache bounded by a caller-supplied weight (usually bytes) rather than
+ * by entry count. Keeps hit/miss/eviction counters so the plugin can report cache health.
+ */
+final class BoundedLruCache<K, V> {
+
+    private static final class Entry<V> {
+        final V value;
+        final long weight;
+
+        Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    // accessOrder = true turns LinkedHashMap into an LRU list
+    private final LinkedHashMap<K, Entry<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxWeight;
+    private long weight = 0;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    BoundedLruCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.value;
+    }
+
+    /**
+     * Stores the value and evicts least recently used entries until the cache fits its budget.
+     * Values heavier than the whole budget are not cached at all.
+     */
+    synchronized void put(K key, V value, long entryWeight) {
+        if (entryWeight > maxWeight) {
+            remove(key);
+            return;
+        }
+
+        Entry<V> previous = map.put(key, new Entry<>(value, entryWeight));
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        weight += entryWeight;
+        trimTo(maxWeight);
+    }
+
+    synchronized V remove(K key) {
+        Entry<V> entry = map.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        weight -= entry.weight;
+        return entry.value;
+    }
+
+    synchronized void clear() {
+        map.clear();
+        weight = 0;
+    }
+
+    synchronized void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+        trimTo(maxWeight);
+    }
+
+    private void trimTo(long limit) {
+        Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+        while (weight > limit && it.hasNext()) {
+            Entry<V> eldest = it.next().getValue();
+            it.remove();
+            weight -= eldest.weight;
+            evictionCount++;
+        }
+    }
+
+    synchronized int size() {
+        return map.size();
+    }
+
+    synchronized long weight() {
+        return weight;
+    }
+
+    synchronized long maxWeight() {
+        return maxWeight;
+    }
+
+    synchronized long hitCount() {
+        return hitCount;
+    }
+
+    synchronized long missCount() {
+        return missCount;
+    }
+
+    synchronized long evictionCount() {
+        return evictionCount;
+    }
+}
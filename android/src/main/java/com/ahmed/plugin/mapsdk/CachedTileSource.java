@@ -0,0 +1,243 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Raster tiles from a URL template ({x}, {y} and {z} placeholders) behind two cache levels:
+ * a byte-bounded in-memory LRU and a DiskTileStore that survives restarts. Lookups go
+ * memory, disk, network; concurrent requests for the same tile share one download.
+ * Missing tiles (HTTP 404/204) are remembered as empty. Pure Java and thread-safe, so it
+ * can be exercised against a local HTTP server in unit tests.
+ */
+final class CachedTileSource {
+
+    /** Returned for tiles the server doesn't have. */
+    static final byte[] EMPTY = new byte[0];
+
+    static final class PrefetchResult {
+        final int total;
+        final int downloaded;
+        final int cached;
+        final int failed;
+        final boolean cancelled;
+
+        PrefetchResult(int total, int downloaded, int cached, int failed, boolean cancelled) {
+            this.total = total;
+            this.downloaded = downloaded;
+            this.cached = cached;
+            this.failed = failed;
+            this.cancelled = cancelled;
+        }
+    }
+
+    private static final int MAX_ZOOM = 22;
+
+    private final String urlTemplate;
+    private final DiskTileStore disk;
+    private final BoundedLruCache<Long, byte[]> memory;
+    private final int timeoutMs;
+    private final Map<Long, Object> downloads = new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
+
+    CachedTileSource(String urlTemplate, DiskTileStore disk, long memoryBytes, int timeoutMs) {
+        this.urlTemplate = urlTemplate;
+        this.disk = disk;
+        this.memory = new BoundedLruCache<>(memoryBytes);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Returns the tile, EMPTY if the server has none, or null if it couldn't be downloaded
+     * right now (offline, timeout, server error). Blocks on the network on a cache miss.
+     */
+    byte[] tile(int x, int y, int zoom) {
+        if (closed) {
+            return null;
+        }
+        long key = key(x, y, zoom);
+        byte[] data = cached(key);
+        if (data != null) {
+            return data;
+        }
+
+        Object lock = downloads.computeIfAbsent(key, k -> new Object());
+        synchronized (lock) {
+            try {
+                // Another thread may have finished the same download while this one waited
+                data = cached(key);
+                if (data != null) {
+                    return data;
+                }
+                data = download(x, y, zoom);
+                if (data != null) {
+                    memory.put(key, data, Math.max(data.length, 64));
+                    if (!closed) {
+                        disk.put(key, data);
+                    }
+                }
+                return data;
+            } finally {
+                downloads.remove(key, lock);
+            }
+        }
+    }
+
+    boolean isCached(int x, int y, int zoom) {
+        long key = key(x, y, zoom);
+        return memory.get(key) != null || disk.contains(key);
+    }
+
+    /**
+     * Downloads every tile of the box at zooms minZoom..maxZoom that isn't cached yet, at most
+     * concurrency at a time, and blocks until done. West greater than east crosses the
+     * antimeridian. Setting cancel stops it after the downloads already running.
+     */
+    PrefetchResult prefetch(double south, double west, double north, double east,
+                            int minZoom, int maxZoom, int concurrency, AtomicBoolean cancel) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        Semaphore slots = new Semaphore(concurrency);
+        AtomicInteger downloaded = new AtomicInteger();
+        AtomicInteger cached = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        int total = 0;
+        try {
+            levels:
+            for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+                int[] range = tileRange(south, west, north, east, zoom);
+                int tiles = 1 << zoom;
+                int columns = Math.floorMod(range[2] - range[0], tiles) + 1;
+                for (int column = 0; column < columns; column++) {
+                    int x = (range[0] + column) % tiles;
+                    for (int y = range[1]; y <= range[3]; y++) {
+                        if (cancel.get() || closed) {
+                            break levels;
+                        }
+                        total++;
+                        if (isCached(x, y, zoom)) {
+                            cached.incrementAndGet();
+                            continue;
+                        }
+                        slots.acquire();
+                        int tileX = x;
+                        int tileY = y;
+                        int tileZoom = zoom;
+                        pool.execute(() -> {
+                            try {
+                                if (tile(tileX, tileY, tileZoom) != null) {
+                                    downloaded.incrementAndGet();
+                                } else {
+                                    failed.incrementAndGet();
+                                }
+                            } finally {
+                                slots.release();
+                            }
+                        });
+                    }
+                }
+            }
+            // Wait for the downloads still running
+            slots.acquire(concurrency);
+            slots.release(concurrency);
+        } finally {
+            pool.shutdown();
+        }
+        return new PrefetchResult(total, downloaded.get(), cached.get(), failed.get(), cancel.get() || closed);
+    }
+
+    /** Number of tiles prefetch would visit, to reject regions that are too large up front. */
+    static long countTiles(double south, double west, double north, double east, int minZoom, int maxZoom) {
+        long count = 0;
+        for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+            int[] range = tileRange(south, west, north, east, zoom);
+            long columns = Math.floorMod(range[2] - range[0], 1 << zoom) + 1;
+            count += columns * (range[3] - range[1] + 1);
+        }
+        return count;
+    }
+
+    void close() throws IOException {
+        closed = true;
+        memory.clear();
+        disk.close();
+    }
+
+    static boolean isValidZoom(int zoom) {
+        return zoom >= 0 && zoom <= MAX_ZOOM;
+    }
+
+    private byte[] cached(long key) {
+        byte[] data = memory.get(key);
+        if (data != null) {
+            return data;
+        }
+        data = disk.get(key);
+        if (data != null) {
+            memory.put(key, data, Math.max(data.length, 64));
+        }
+        return data;
+    }
+
+    private byte[] download(int x, int y, int zoom) {
+        String url = urlTemplate
+                .replace("{x}", String.valueOf(x))
+                .replace("{y}", String.valueOf(y))
+                .replace("{z}", String.valueOf(zoom));
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setConnectTimeout(timeoutMs);
+            connection.setReadTimeout(timeoutMs);
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_FOUND || status == HttpURLConnection.HTTP_NO_CONTENT) {
+                return EMPTY;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                return null;
+            }
+            try (InputStream in = connection.getInputStream()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(1024, connection.getContentLength()));
+                byte[] chunk = new byte[8192];
+                int read;
+                while ((read = in.read(chunk)) != -1) {
+                    out.write(chunk, 0, read);
+                }
+                return out.toByteArray();
+            }
+        } catch (IOException e) {
+            return null;
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    private static long key(int x, int y, int zoom) {
+        return ((long) zoom << 58) | ((long) x << 29) | y;
+    }
+
+    // {westX, northY, eastX, southY} at zoom; eastX is less than westX across the antimeridian
+    private static int[] tileRange(double south, double west, double north, double east, int zoom) {
+        int tiles = 1 << zoom;
+        int westX = tileIndex(ClusterIndex.mercatorX(west), tiles);
+        int eastX = tileIndex(ClusterIndex.mercatorX(east), tiles);
+        int northY = tileIndex(ClusterIndex.mercatorY(north), tiles);
+        int southY = tileIndex(ClusterIndex.mercatorY(south), tiles);
+        return new int[] { westX, northY, eastX, southY };
+    }
+
+    private static int tileIndex(double worldCoord, int tiles) {
+        return Math.max(0, Math.min(tiles - 1, (int) Math.floor(worldCoord * tiles)));
+    }
+}
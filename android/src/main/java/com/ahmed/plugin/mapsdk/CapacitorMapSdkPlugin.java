@@ -5,7 +5,6 @@ import android.content.Context;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -17,8 +16,12 @@ import android.location.Address;
 import android.location.Geocoder;
 import android.location.Location;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Base64;
 import android.util.Log;
+import android.view.Choreographer;
 import android.view.Gravity;
 import android.view.View;
 import android.view.ViewGroup;
@@ -36,14 +39,27 @@ import com.getcapacitor.PluginCall;
 import com.getcapacitor.annotation.CapacitorPlugin;
 import com.getcapacitor.PluginMethod;
 import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
 import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.location.Priority;
 
 import com.google.android.gms.maps.*;
 import com.google.android.gms.maps.model.*;
 
+import org.json.JSONArray;
 import org.json.JSONException;
+import org.json.JSONObject;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.ArrayList;
@@ -51,26 +67,221 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @CapacitorPlugin(name = "CapacitorMapSdk")
 public class CapacitorMapSdkPlugin extends Plugin {
 
     private static final String MAPS_TAG = "CAPACITOR_MAPS_SDK_TAGS";
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 1001;
+    // Give userMarker the highest z-index to always be on top
+    private static final float USER_MARKER_Z_INDEX = 999999f;
+    // Generated MDI markers are 100x125 ARGB_8888 (~50KB), so 4MB holds ~80 distinct styles
+    private static final long DEFAULT_MARKER_CACHE_BYTES = 4L * 1024 * 1024;
 
     private GoogleMap googleMap;
     private MapView mapView;
+    // Loaded on first use, see mdiTypeface()
     private Typeface mdiTypeface = null;
     private FrameLayout mapContainer = null;
     private String mapId = "default-map";
-    private List<Marker> markers = new ArrayList<>();
-    private Map<String, List<Marker>> markersByTitle = new HashMap<>();
+    private final MarkerRegistry<Marker> markerRegistry = new MarkerRegistry<>();
+    // Single thread so markers decoded off the UI thread are still added in call order
+    private final ExecutorService iconExecutor = Executors.newSingleThreadExecutor();
+    private final BoundedLruCache<MarkerStyleKey, BitmapDescriptor> markerIconCache =
+            new BoundedLruCache<>(DEFAULT_MARKER_CACHE_BYTES);
+
+    // Clustering — the index is built on indexExecutor and rendered on camera idle
+    private final ExecutorService indexExecutor = Executors.newSingleThreadExecutor();
+    private boolean clusteringEnabled = false;
+    private int clusterGridSize = 64;
+    private int clusterMaxZoom = 16;
+    private int clusterMinSize = 2;
+    private String[] clusterColors = { "#1E88E5", "#FFFFFF", "#1E88E5" };
+    private ClusterIndex clusterIndex = null;
+    private String[] clusterItemIds = new String[0];
+    private int clusterIndexModCount = -1;
+    private boolean clusterBuildInFlight = false;
+    // Bumped whenever the clustering config changes so results of stale builds are dropped
+    private int clusterGeneration = 0;
+    // Cluster marker id to the cluster it stands for, for clicks
+    private final Map<String, ClusterIndex.Cluster> clusterMarkers = new HashMap<>();
+    // Live cluster markers by Cluster.id(), so a render only touches clusters that changed
+    private Map<String, Marker> clusterMarkersById = new HashMap<>();
+    // clusterGeneration the live cluster markers were rendered for
+    private int clusterMarkersGeneration = 0;
+    // Position updates re-cluster at most this often; camera idle refreshes right away
+    private static final long CLUSTER_MOVE_REFRESH_MS = 500;
+    private boolean clusterRefreshPending = false;
+    private final Runnable deferredClusterRefresh = this::refreshClusters;
+    private Set<String> hiddenByClusters = new HashSet<>();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Instrumentation — off by default, see setPerformanceMonitoring
+    private final PerformanceMonitor performance = new PerformanceMonitor();
+    private long performanceIntervalMs = 0;
+    private final Runnable performanceTick = this::emitPerformanceStats;
+
+    // Batched event delivery — see setEventBatching
+    private volatile boolean eventBatching = false;
+    private final EventBatcher<JSObject> eventBatcher = new EventBatcher<>();
+    private final Choreographer.FrameCallback eventFlushCallback = frameTimeNanos -> flushEventBatch();
+    private final Runnable scheduleEventFlushOnMain = this::scheduleEventFlush;
+
+    // Camera event policy — see setCameraEventOptions. Unlimited by default, as before
+    private final EventThrottle boundsThrottle = new EventThrottle(0, true);
+    private boolean boundsIdleOnly = false;
+    private final Runnable trailingBoundsEmission = () -> {
+        boundsThrottle.trailingFired(SystemClock.uptimeMillis());
+        emitBoundsChanged();
+    };
+
+    // Drag event policy — see setDragEventOptions. Unlimited by default, as before
+    private final EventThrottle dragThrottle = new EventThrottle(0, true);
+    private boolean suppressIntermediateDrag = false;
+    private Marker draggingMarker = null;
+
+    // Adds the debug object to onMarkerClick — see setClickEventOptions
+    private boolean clickDebug = false;
+    private final Runnable trailingDragEmission = () -> {
+        dragThrottle.trailingFired(SystemClock.uptimeMillis());
+        if (draggingMarker != null) {
+            emitMarkerDrag(draggingMarker);
+        }
+    };
+
+    // Reverse geocoding for onMarkerDragEnd — Geocoder blocks on the network, so it runs on
+    // its own threads with a timeout and results are cached per ~11m cell
+    private static final long GEOCODE_TIMEOUT_MS = 5000;
+    private final ExecutorService geocodeExecutor = Executors.newFixedThreadPool(2);
+    private final ScheduledExecutorService geocodeTimer = Executors.newSingleThreadScheduledExecutor();
+    private final ReverseGeocoder reverseGeocoder = new ReverseGeocoder(
+            this::lookupAddress, geocodeExecutor, geocodeTimer, GEOCODE_TIMEOUT_MS, 0.0001, 256);
+
+    // Virtualized markers — all specs stay in virtualMarkers, only those near the
+    // viewport exist as real markers, added and removed a few per frame
+    private VirtualMarkerIndex virtualMarkers = null;
+    private Marker[] virtualMarkerObjects = new Marker[0];
+    private double virtualMargin = 0.5;
+    private int virtualMaxVisible = 500;
+    private int virtualBatchSize = 50;
+    private int virtualGeneration = 0;
+    private VirtualMarkerIndex.Plan pendingVirtualPlan = null;
+    private BitmapDescriptor[] pendingVirtualIcons = null;
+    private int pendingVirtualCursor = 0;
+    private final Choreographer.FrameCallback virtualFrameCallback = this::applyVirtualBatch;
+
+    // Marker animations — see animateMarkers. One frame callback moves every animated
+    // marker; it reposts itself while any are still moving
+    private final MarkerAnimator<Marker> markerAnimator = new MarkerAnimator<>();
+    private boolean markerAnimationScheduled = false;
+    private final Choreographer.FrameCallback markerAnimationCallback = this::stepMarkerAnimations;
+    private final MarkerAnimator.Sink<Marker> markerAnimationSink = (id, marker, latitude, longitude) -> {
+        // Removed or recreated since the animation started
+        if (markerRegistry.get(id) != marker) {
+            return false;
+        }
+        marker.setPosition(new LatLng(latitude, longitude));
+        return true;
+    };
+
+    // Polylines and polygons by shape ID. Each holds every level of detail, built on
+    // indexExecutor; onCameraIdle swaps in the one for the current zoom band
+    private final Map<String, Shape> shapes = new HashMap<>();
+    private int shapeCounter = 0;
+
+    // Heatmap tile layers by heatmap ID
+    private final Map<String, Heatmap> heatmaps = new HashMap<>();
+    private int heatmapCounter = 0;
+    private static final long HEATMAP_TILE_CACHE_BYTES = 8L * 1024 * 1024;
+
+    private static final class Heatmap {
+        final HeatmapTileProvider provider;
+        TileOverlay overlay;
+
+        Heatmap(HeatmapTileProvider provider) {
+            this.provider = provider;
+        }
+    }
+
+    // Custom raster tile layers by layer ID. tileExecutor opens their disk caches and runs
+    // prefetches, which block for as long as the downloads take
+    private final Map<String, TileLayer> tileLayers = new HashMap<>();
+    // urlTemplate by layer ID for layers whose cache is still being opened, so a second
+    // addTileLayer for the same template or id is rejected before it gets to the file
+    private final Map<String, String> pendingTileLayers = new HashMap<>();
+    // Open tile sources by cache file, guarded by itself. Opening a cache file closes the
+    // source still holding it first, on the same thread, whatever order tileExecutor runs
+    // the queued opens and closes in
+    private final Map<File, CachedTileSource> openTileSources = new HashMap<>();
+    private int tileLayerCounter = 0;
+    private final ExecutorService tileExecutor = Executors.newCachedThreadPool();
+    private static final long MAX_TILE_MEMORY_CACHE_BYTES = 16L * 1024 * 1024;
+    private static final int TILE_TIMEOUT_MS = 10000;
+    private static final long MAX_PREFETCH_TILES = 20000;
+
+    private static final class TileLayer {
+        final String urlTemplate;
+        final File cacheFile;
+        final CachedTileSource source;
+        final AtomicBoolean cancelPrefetch = new AtomicBoolean();
+        TileOverlay overlay;
+
+        TileLayer(String urlTemplate, File cacheFile, CachedTileSource source) {
+            this.urlTemplate = urlTemplate;
+            this.cacheFile = cacheFile;
+            this.source = source;
+        }
+    }
+
+    private static final class Shape {
+        final int vertexCount;
+        // Points per zoom band, see ShapeSimplifier.band
+        final List<List<LatLng>> outlineLevels;
+        // Holes per zoom band, polygons only
+        final List<List<List<LatLng>>> holeLevels;
+        Polyline polyline;
+        Polygon polygon;
+        int band = -1;
+
+        Shape(int vertexCount, List<List<LatLng>> outlineLevels, List<List<List<LatLng>>> holeLevels) {
+            this.vertexCount = vertexCount;
+            this.outlineLevels = outlineLevels;
+            this.holeLevels = holeLevels;
+        }
+
+        void remove() {
+            if (polyline != null) {
+                polyline.remove();
+            }
+            if (polygon != null) {
+                polygon.remove();
+            }
+        }
+    }
 
     // Location services
     private FusedLocationProviderClient fusedLocationClient;
     private ImageButton currentLocationButton;
     private boolean showLocationButton = true;
-    private PluginCall pendingLocationCall = null;
+    // getCurrentLocation calls waiting for the running provider query
+    private final List<PluginCall> pendingLocationCalls = new ArrayList<>();
+    private boolean locationQueryInFlight = false;
+    // Newest fix from getCurrentLocation or tracking, for maxAgeMs
+    private Location lastLocation = null;
+
+    // Continuous tracking — see startLocationTracking. Fixes go through trackingFilter
+    // before they are emitted; tracking pauses with the app unless trackingInBackground
+    private static final double TRACKING_MAX_SPEED_MPS = 100;
+    private LocationRequest trackingRequest = null;
+    private LocationCallback trackingCallback = null;
+    private LocationFilter trackingFilter = null;
+    private boolean trackingInBackground = false;
+    private boolean trackingPaused = false;
 
     // Stored button margins (in dp) so we can reposition on updateMapBounds
     private int locationButtonLeft   = 0;
@@ -78,25 +289,275 @@ public class CapacitorMapSdkPlugin extends Plugin {
     private int locationButtonTop    = 0;
     private int locationButtonBottom = 0;
 
+    // A MapView created ahead of initialize, either by prewarm or kept by destroyMap({ keep: true }).
+    // It stays attached behind the WebView so the next initialize only has to show it.
+    private MapView warmMapView = null;
+    private FrameLayout warmMapContainer = null;
+    private GoogleMap warmGoogleMap = null;
+    private String warmStartType = null;
+    // initialize calls that adopted a prewarmed view before its GoogleMap was ready
+    private PluginCall adoptingCall = null;
+    private long adoptingStartedAtMs = 0;
+
+    // updateMapBounds calls waiting for the next frame's relayout
+    private final List<PluginCall> pendingBoundsCalls = new ArrayList<>();
+    private boolean boundsFramePosted = false;
+    private final Choreographer.FrameCallback boundsFrameCallback = this::applyMapBounds;
+
     // Map configuration
     private int mapX = 0;
     private int mapY = 0;
     private int mapWidth = 0;
     private int mapHeight = 0;
 
+    // Posts to the main thread, timing the queue wait and the work under method when monitoring is on
+    private void runOnUiThread(String method, Runnable action) {
+        getActivity().runOnUiThread(performance.wrap(method, PerformanceMonitor.Phase.MAIN_THREAD, true, action));
+    }
+
+    private void runInBackground(ExecutorService executor, String method, Runnable task) {
+        executor.execute(performance.wrap(method, PerformanceMonitor.Phase.BACKGROUND, false, task));
+    }
+
+    @Override
+    protected void notifyListeners(String eventName, JSObject data) {
+        if (eventBatching && !"onEventBatch".equals(eventName)) {
+            if (eventBatcher.add(eventName, data.optString("markerId", null), data)) {
+                scheduleEventFlush();
+            }
+            return;
+        }
+        emitEvent(eventName, data, performance.start());
+    }
+
+    // Hands the event to the WebView and returns the nanoseconds since start, or 0 when
+    // monitoring is off. notifyListeners starts the timer after the caller built data, so
+    // for single events only the hand-off is timed; flushEventBatch starts it before
+    // building the batch envelope.
+    private long emitEvent(String eventName, JSObject data, long start) {
+        super.notifyListeners(eventName, data);
+        if (start == 0) {
+            return 0;
+        }
+        long nanos = System.nanoTime() - start;
+        performance.recordEmission(eventName, nanos);
+        return nanos;
+    }
+
+    // Whether anyone will receive the event, directly or inside onEventBatch
+    private boolean wantsEvent(String eventName) {
+        return eventBatching ? hasListeners("onEventBatch") : hasListeners(eventName);
+    }
+
+    /**
+     * Queues events instead of sending them one by one and delivers everything raised within a
+     * frame as a single onEventBatch. coalesce overrides the per-event rule: "all" keeps every
+     * event, "latest" only the last one per frame, "latestPerMarker" the last one per markerId.
+     */
+    @PluginMethod
+    public void setEventBatching(PluginCall call) {
+        boolean enabled = call.getBoolean("enabled", true);
+        JSObject coalesce = call.getObject("coalesce", null);
+        if (coalesce != null) {
+            Iterator<String> names = coalesce.keys();
+            while (names.hasNext()) {
+                String name = names.next();
+                String rule = coalesce.optString(name, "");
+                switch (rule) {
+                    case "all":
+                        eventBatcher.setRule(name, EventBatcher.Rule.ALL);
+                        break;
+                    case "latest":
+                        eventBatcher.setRule(name, EventBatcher.Rule.LATEST);
+                        break;
+                    case "latestPerMarker":
+                        eventBatcher.setRule(name, EventBatcher.Rule.LATEST_PER_KEY);
+                        break;
+                    default:
+                        call.reject("Unknown coalescing rule for " + name + ": " + rule);
+                        return;
+                }
+            }
+        }
+
+        eventBatching = enabled;
+        if (!enabled) {
+            // Deliver whatever was queued before batching was turned off
+            mainHandler.post(this::flushEventBatch);
+        }
+        call.resolve();
+    }
+
+    private void scheduleEventFlush() {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            Choreographer.getInstance().postFrameCallback(eventFlushCallback);
+        } else {
+            // Events raised on worker threads (geocoding) hop to the main thread first
+            mainHandler.post(scheduleEventFlushOnMain);
+        }
+    }
+
+    // Runs once per frame while events are queued
+    private void flushEventBatch() {
+        List<EventBatcher.Event<JSObject>> events = eventBatcher.drain();
+        if (events.isEmpty()) {
+            return;
+        }
+        long start = performance.start();
+        JSArray items = new JSArray();
+        for (EventBatcher.Event<JSObject> event : events) {
+            JSObject item = new JSObject();
+            item.put("type", event.name);
+            item.put("data", event.data);
+            items.put(item);
+        }
+        JSObject batch = new JSObject();
+        batch.put("events", items);
+        batch.put("coalesced", eventBatcher.takeCoalescedCount());
+        long nanos = emitEvent("onEventBatch", batch, start);
+
+        // Keep the per-name counts going while batching; each event gets an equal share of the batch
+        if (nanos > 0) {
+            long share = nanos / events.size();
+            for (EventBatcher.Event<JSObject> event : events) {
+                performance.recordBatchedEvent(event.name, event.coalesced, share);
+            }
+        }
+    }
+
+    /**
+     * Turns instrumentation on or off. With intervalMs > 0 an onPerformanceStats event carrying
+     * the same data as getPerformanceStats is sent at that interval. Enabling starts a fresh window.
+     */
+    @PluginMethod
+    public void setPerformanceMonitoring(PluginCall call) {
+        boolean enabled = call.getBoolean("enabled", true);
+        long intervalMs = call.getLong("intervalMs", 0L);
+        getActivity().runOnUiThread(() -> {
+            performance.setEnabled(enabled, SystemClock.elapsedRealtime());
+            mainHandler.removeCallbacks(performanceTick);
+            performanceIntervalMs = enabled ? Math.max(0, intervalMs) : 0;
+            if (performanceIntervalMs > 0) {
+                mainHandler.postDelayed(performanceTick, performanceIntervalMs);
+            }
+            call.resolve();
+        });
+    }
+
+    @PluginMethod
+    public void getPerformanceStats(PluginCall call) {
+        JSObject stats = buildPerformanceStats();
+        if (call.getBoolean("reset", false)) {
+            performance.reset(SystemClock.elapsedRealtime());
+        }
+        call.resolve(stats);
+    }
+
+    private void emitPerformanceStats() {
+        if (performanceIntervalMs <= 0) {
+            return;
+        }
+        // Time how long a post to the main thread takes right now, as a measure of its backlog
+        long postedAt = SystemClock.elapsedRealtime();
+        mainHandler.post(() -> {
+            JSObject stats = buildPerformanceStats();
+            stats.put("mainThreadLagMs", SystemClock.elapsedRealtime() - postedAt);
+            notifyListeners("onPerformanceStats", stats);
+        });
+        mainHandler.postDelayed(performanceTick, performanceIntervalMs);
+    }
+
+    private JSObject buildPerformanceStats() {
+        JSObject methods = new JSObject();
+        for (Map.Entry<String, Map<PerformanceMonitor.Phase, PerformanceMonitor.Histogram>> method : performance.methods().entrySet()) {
+            JSObject phases = new JSObject();
+            for (Map.Entry<PerformanceMonitor.Phase, PerformanceMonitor.Histogram> phase : method.getValue().entrySet()) {
+                phases.put(phase.getKey().key, histogramToJSON(phase.getValue()));
+            }
+            methods.put(method.getKey(), phases);
+        }
+
+        JSObject events = new JSObject();
+        Map<String, Long> coalesced = performance.coalesced();
+        for (Map.Entry<String, PerformanceMonitor.Histogram> event : performance.events().entrySet()) {
+            JSObject json = histogramToJSON(event.getValue());
+            Long dropped = coalesced.get(event.getKey());
+            if (dropped != null) {
+                json.put("coalesced", dropped);
+            }
+            events.put(event.getKey(), json);
+        }
+
+        JSObject stats = new JSObject();
+        stats.put("enabled", performance.isEnabled());
+        stats.put("windowMs", SystemClock.elapsedRealtime() - performance.sinceMs());
+        stats.put("mainThreadQueueDepth", performance.queueDepth());
+        stats.put("maxMainThreadQueueDepth", performance.maxQueueDepth());
+        stats.put("methods", methods);
+        stats.put("events", events);
+        return stats;
+    }
+
+    private static JSObject histogramToJSON(PerformanceMonitor.Histogram histogram) {
+        JSObject json = new JSObject();
+        json.put("count", histogram.count());
+        json.put("meanMs", histogram.meanMs());
+        json.put("p50Ms", histogram.percentileMs(0.5));
+        json.put("p95Ms", histogram.percentileMs(0.95));
+        json.put("p99Ms", histogram.percentileMs(0.99));
+        json.put("maxMs", histogram.maxMs());
+        return json;
+    }
+
     @Override
     public void load() {
         super.load();
+
+        // Per-frame state: only the latest matters. Drags keep the latest position per marker.
+        eventBatcher.setRule("onBoundsChanged", EventBatcher.Rule.LATEST);
+        eventBatcher.setRule("onCameraIdle", EventBatcher.Rule.LATEST);
+        eventBatcher.setRule("onPerformanceStats", EventBatcher.Rule.LATEST);
+        eventBatcher.setRule("onMarkerDrag", EventBatcher.Rule.LATEST_PER_KEY);
+
+        // Initialize location services
+        fusedLocationClient = LocationServices.getFusedLocationProviderClient(getActivity());
+    }
+
+    /**
+     * The MDI icon font is large and only needed for generated markers, so it is no longer read
+     * in load(). It is created the first time a marker icon is drawn, on iconExecutor, so marker
+     * tasks queued behind it simply wait for it. Call from iconExecutor only.
+     */
+    private synchronized Typeface mdiTypeface() {
         if (mdiTypeface == null) {
             mdiTypeface = Typeface.createFromAsset(getContext().getAssets(), "fonts/mdi.ttf");
         }
+        return mdiTypeface;
+    }
 
-        // Initialize location services
-        fusedLocationClient = LocationServices.getFusedLocationProviderClient(getActivity());
+    // Loads the icon font ahead of the first custom marker
+    @PluginMethod
+    public void preloadAssets(PluginCall call) {
+        runInBackground(iconExecutor, "preloadAssets", () -> {
+            long startedAtMs = SystemClock.elapsedRealtime();
+            boolean alreadyLoaded = mdiTypeface != null;
+            try {
+                mdiTypeface();
+            } catch (RuntimeException e) {
+                call.reject("Failed to load icon font: " + e.getMessage());
+                return;
+            }
+
+            JSObject result = new JSObject();
+            result.put("alreadyLoaded", alreadyLoaded);
+            result.put("loadMs", SystemClock.elapsedRealtime() - startedAtMs);
+            call.resolve(result);
+        });
     }
 
     @PluginMethod
     public void initialize(PluginCall call) {
+        long startedAtMs = SystemClock.elapsedRealtime();
         Context context = getContext();
         String apiKey = call.getString("apiKey");
 
@@ -109,9 +570,22 @@ public class CapacitorMapSdkPlugin extends Plugin {
         String containerId = call.getString("containerId", "map-container");
         showLocationButton = call.getBoolean("showLocationButton", false);
 
+        // Bounds passed in by the caller save a round-trip through the WebView
+        JSObject explicitBounds = call.getObject("bounds", null);
+        if (explicitBounds != null && explicitBounds.optInt("width", 0) > 0 && explicitBounds.optInt("height", 0) > 0) {
+            runOnUiThread("initialize", () -> {
+                mapX = explicitBounds.optInt("x", 0);
+                mapY = explicitBounds.optInt("y", 0);
+                mapWidth = explicitBounds.optInt("width", 0);
+                mapHeight = explicitBounds.optInt("height", 0);
+                initializeMap(apiKey, call, startedAtMs);
+            });
+            return;
+        }
+
         // Read actual element bounds from the WebView DOM — Android resource ID lookup
         // doesn't work for HTML element IDs (especially ones with hyphens like "census-map-container")
-        getActivity().runOnUiThread(() -> {
+        runOnUiThread("initialize", () -> {
             String js = "(function() {" +
                     "var el = document.getElementById('" + containerId + "');" +
                     "if (!el) return null;" +
@@ -120,7 +594,7 @@ public class CapacitorMapSdkPlugin extends Plugin {
                     " w: Math.round(r.width), h: Math.round(r.height)};" +
                     "})()";
             getBridge().getWebView().evaluateJavascript(js, result -> {
-                getActivity().runOnUiThread(() -> {
+                runOnUiThread("initialize", () -> {
                     if (result != null && !result.equals("null")) {
                         try {
                             org.json.JSONObject bounds = new org.json.JSONObject(result);
@@ -132,13 +606,13 @@ public class CapacitorMapSdkPlugin extends Plugin {
                             Log.e(MAPS_TAG, "Could not read map element bounds: " + e.getMessage());
                         }
                     }
-                    initializeMap(apiKey, call);
+                    initializeMap(apiKey, call, startedAtMs);
                 });
             });
         });
     }
 
-    private void initializeMap(String apiKey, PluginCall call) {
+    private void initializeMap(String apiKey, PluginCall call, long startedAtMs) {
         Context context = getContext();
 
         try {
@@ -155,27 +629,18 @@ public class CapacitorMapSdkPlugin extends Plugin {
                 bundle.putString("com.google.android.geo.API_KEY", apiKey);
             }
 
-            if (mapView == null) {
+            if (mapView == null && warmMapView != null) {
+                adoptWarmMap(call, startedAtMs);
+            } else if (mapView == null) {
                 mapView = new MapView(context);
                 mapView.onCreate(null);
                 mapView.onResume();
 
                 // Create a proper overlay container
-                createMapOverlay();
-
-                mapView.getMapAsync(gMap -> {
-                    googleMap = gMap;
-
-                    // Set up listeners
-                    setupMapListeners();
-
-                    // Create location button if enabled
-                    if (showLocationButton) {
-                        createLocationButton(call);
-                    }
+                mapContainer = createMapOverlay(mapView);
+                revealMap();
 
-                    call.resolve();
-                });
+                mapView.getMapAsync(gMap -> onMapReady(gMap, call, "cold", startedAtMs));
             } else {
                 // Map already initialized, make sure it's visible
                 if (mapView.getVisibility() != View.VISIBLE) {
@@ -188,20 +653,120 @@ public class CapacitorMapSdkPlugin extends Plugin {
         }
     }
 
-    private void createMapOverlay() {
+    // Runs once the GoogleMap of the active mapView is available
+    private void onMapReady(GoogleMap gMap, PluginCall call, String startType, long startedAtMs) {
+        googleMap = gMap;
+        long readyMs = SystemClock.elapsedRealtime() - startedAtMs;
+
+        // Set up listeners
+        setupMapListeners();
+
+        // Create location button if enabled
+        if (showLocationButton) {
+            createLocationButton(call);
+        }
+
+        // Fires once the map has finished rendering — right away if it already has
+        googleMap.setOnMapLoadedCallback(() -> {
+            JSObject data = new JSObject();
+            data.put("mapId", mapId);
+            data.put("startType", startType);
+            data.put("readyMs", readyMs);
+            data.put("firstFrameMs", SystemClock.elapsedRealtime() - startedAtMs);
+            notifyListeners("onMapLoaded", data);
+        });
+
+        JSObject result = new JSObject();
+        result.put("startType", startType);
+        result.put("readyMs", readyMs);
+        call.resolve(result);
+    }
+
+    // Turns the warm MapView into the active one, sized to the bounds initialize just read
+    private void adoptWarmMap(PluginCall call, long startedAtMs) {
+        Bridge bridge = getBridge();
+        mapView = warmMapView;
+        mapContainer = warmMapContainer;
+        GoogleMap readyMap = warmGoogleMap;
+        String startType = warmStartType;
+        warmMapView = null;
+        warmMapContainer = null;
+        warmGoogleMap = null;
+        warmStartType = null;
+
+        FrameLayout.LayoutParams mapParams = (FrameLayout.LayoutParams) mapView.getLayoutParams();
+        mapParams.width = mapWidth > 0 ? getScaledPixels(bridge, mapWidth) : FrameLayout.LayoutParams.MATCH_PARENT;
+        mapParams.height = mapHeight > 0 ? getScaledPixels(bridge, mapHeight) : FrameLayout.LayoutParams.MATCH_PARENT;
+        mapParams.leftMargin = mapX > 0 ? getScaledPixels(bridge, mapX) : 0;
+        mapParams.topMargin = mapY > 0 ? getScaledPixels(bridge, mapY) : 0;
+        mapView.setLayoutParams(mapParams);
+
+        mapContainer.setTag(mapId);
+        mapContainer.setVisibility(View.VISIBLE);
+        mapView.onResume();
+        revealMap();
+
+        if (readyMap != null) {
+            onMapReady(readyMap, call, startType, startedAtMs);
+        } else {
+            // prewarm's getMapAsync hasn't returned yet; it finishes this call
+            adoptingCall = call;
+            adoptingStartedAtMs = startedAtMs;
+        }
+    }
+
+    /**
+     * Creates a MapView ahead of initialize so the GL context, map style and first tiles are
+     * loaded while the page is still on screen. The view sits behind the (still opaque) WebView
+     * until initialize shows it.
+     */
+    @PluginMethod
+    public void prewarm(PluginCall call) {
+        long startedAtMs = SystemClock.elapsedRealtime();
+        runOnUiThread("prewarm", () -> {
+            if (mapView != null || warmMapView != null) {
+                JSObject result = new JSObject();
+                result.put("readyMs", 0);
+                call.resolve(result);
+                return;
+            }
+
+            MapView view = new MapView(getContext());
+            view.onCreate(null);
+            view.onResume();
+            warmMapView = view;
+            warmMapContainer = createMapOverlay(view);
+            warmStartType = "prewarmed";
+
+            view.getMapAsync(gMap -> {
+                JSObject result = new JSObject();
+                result.put("readyMs", SystemClock.elapsedRealtime() - startedAtMs);
+                if (warmMapView == view) {
+                    warmGoogleMap = gMap;
+                } else if (mapView == view && adoptingCall != null) {
+                    PluginCall initializeCall = adoptingCall;
+                    adoptingCall = null;
+                    onMapReady(gMap, initializeCall, "prewarmed", adoptingStartedAtMs);
+                }
+                call.resolve(result);
+            });
+        });
+    }
+
+    private FrameLayout createMapOverlay(MapView view) {
         Bridge bridge = getBridge();
         Context context = bridge.getContext();
 
         // Create map container
-        mapContainer = new FrameLayout(context);
-        mapContainer.setTag(mapId);
+        FrameLayout container = new FrameLayout(context);
+        container.setTag(mapId);
 
         // Set layout params for the map container
         FrameLayout.LayoutParams containerParams = new FrameLayout.LayoutParams(
                 FrameLayout.LayoutParams.MATCH_PARENT,
                 FrameLayout.LayoutParams.MATCH_PARENT
         );
-        mapContainer.setLayoutParams(containerParams);
+        container.setLayoutParams(containerParams);
 
         // Create layout params for the map view
         FrameLayout.LayoutParams mapParams = new FrameLayout.LayoutParams(
@@ -212,19 +777,22 @@ public class CapacitorMapSdkPlugin extends Plugin {
         if (mapX > 0) mapParams.leftMargin = getScaledPixels(bridge, mapX);
         if (mapY > 0) mapParams.topMargin = getScaledPixels(bridge, mapY);
 
-        mapView.setLayoutParams(mapParams);
-        mapContainer.addView(mapView);
+        view.setLayoutParams(mapParams);
+        container.addView(view);
 
         // Add container to WebView parent
         ViewGroup webViewParent = (ViewGroup) bridge.getWebView().getParent();
-        webViewParent.addView(mapContainer, 0); // Add at index 0 (behind WebView)
-
-        // Make WebView background transparent so map shows through
-        bridge.getWebView().setBackgroundColor(Color.TRANSPARENT);
+        webViewParent.addView(container, 0); // Add at index 0 (behind WebView)
 
         // Enable hardware acceleration for better performance
-        mapView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
-        mapContainer.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        container.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        return container;
+    }
+
+    private void revealMap() {
+        // Make WebView background transparent so map shows through
+        getBridge().getWebView().setBackgroundColor(Color.TRANSPARENT);
     }
 
     @PluginMethod
@@ -315,7 +883,7 @@ public class CapacitorMapSdkPlugin extends Plugin {
     public void toggleLocationButton(PluginCall call) {
         boolean show = call.getBoolean("show", true);
 
-        getActivity().runOnUiThread(() -> {
+        runOnUiThread("toggleLocationButton", () -> {
             if (currentLocationButton != null) {
                 currentLocationButton.setVisibility(show ? View.VISIBLE : View.GONE);
                 showLocationButton = show;
@@ -329,13 +897,34 @@ public class CapacitorMapSdkPlugin extends Plugin {
         });
     }
 
+    /**
+     * maxAgeMs: answer straight away from the last known fix if it is at most this old, from
+     * this call or from location tracking. Calls made while a query is running share its result.
+     */
     @PluginMethod
     public void getCurrentLocation(PluginCall call) {
-        pendingLocationCall = call;
-        getCurrentLocation();
+        Long maxAgeMs = call.getLong("maxAgeMs");
+        runOnUiThread("getCurrentLocation", () -> {
+            if (maxAgeMs != null && lastLocation != null
+                    && locationAgeMs(lastLocation) <= maxAgeMs) {
+                JSObject data = locationData(lastLocation);
+                data.put("cached", true);
+                showLocation(lastLocation, data);
+                call.resolve(data);
+                return;
+            }
+            pendingLocationCalls.add(call);
+            getCurrentLocation();
+        });
     }
 
+    // Must be called on the UI thread. Starts a provider query unless one is already running;
+    // every call in pendingLocationCalls is settled with its result.
     private void getCurrentLocation() {
+        if (locationQueryInFlight) {
+            return;
+        }
+
         // Check location permission
         if (ContextCompat.checkSelfPermission(getContext(), Manifest.permission.ACCESS_FINE_LOCATION)
                 != PackageManager.PERMISSION_GRANTED) {
@@ -344,56 +933,230 @@ public class CapacitorMapSdkPlugin extends Plugin {
             ActivityCompat.requestPermissions(getActivity(),
                     new String[]{Manifest.permission.ACCESS_FINE_LOCATION},
                     LOCATION_PERMISSION_REQUEST_CODE);
+            rejectLocationCalls("Location permission not granted");
+            return;
+        }
+
+        // Get current location. The listener isn't scoped to the activity: activity-scoped
+        // listeners are dropped when it stops, which would leave the query in flight for good.
+        // It runs on the main thread.
+        locationQueryInFlight = true;
+        try {
+            fusedLocationClient.getLastLocation().addOnCompleteListener(task -> {
+                locationQueryInFlight = false;
+                if (!task.isSuccessful()) {
+                    Exception e = task.getException();
+                    rejectLocationCalls("Failed to get location: " + (e != null ? e.getMessage() : "cancelled"));
+                    return;
+                }
+                Location location = task.getResult();
+                if (location == null) {
+                    rejectLocationCalls("Unable to get current location");
+                    return;
+                }
+                lastLocation = location;
+                JSObject data = locationData(location);
+                data.put("cached", false);
+                showLocation(location, data);
+                for (PluginCall pending : pendingLocationCalls) {
+                    pending.resolve(data);
+                }
+                pendingLocationCalls.clear();
+            });
+        } catch (SecurityException e) {
+            locationQueryInFlight = false;
+            rejectLocationCalls("Location permission not granted");
+        }
+    }
+
+    // Moves the camera to the location and emits onLocationFound
+    private void showLocation(Location location, JSObject data) {
+        if (googleMap != null) {
+            LatLng currentLatLng = new LatLng(location.getLatitude(), location.getLongitude());
+            googleMap.animateCamera(CameraUpdateFactory.newLatLngZoom(currentLatLng, 18f));
+        }
+        notifyListeners("onLocationFound", data);
+    }
+
+    private void rejectLocationCalls(String message) {
+        for (PluginCall pending : pendingLocationCalls) {
+            pending.reject(message);
+        }
+        pendingLocationCalls.clear();
+    }
+
+    private static JSObject locationData(Location location) {
+        JSObject data = new JSObject();
+        data.put("latitude", location.getLatitude());
+        data.put("longitude", location.getLongitude());
+        data.put("accuracy", location.getAccuracy());
+        data.put("timestamp", location.getTime());
+        return data;
+    }
+
+    private static long locationAgeMs(Location location) {
+        return (SystemClock.elapsedRealtimeNanos() - location.getElapsedRealtimeNanos()) / 1_000_000L;
+    }
+
+    /**
+     * Continuous location updates through onLocationUpdate. intervalMs (default 1000) is the
+     * desired update interval; with maxWaitMs the provider may hold fixes back and deliver them
+     * together, which saves battery. minDistanceM (default 0) is applied both by the provider and
+     * after smoothing. priority: 'high' (default), 'balanced', 'low' or 'passive'. Unless
+     * background is set, tracking pauses while the app is in the background. Replaces any
+     * tracking already running.
+     */
+    @PluginMethod
+    public void startLocationTracking(PluginCall call) {
+        long intervalMs = call.getLong("intervalMs", 1000L);
+        long maxWaitMs = call.getLong("maxWaitMs", 0L);
+        double minDistanceM = call.getDouble("minDistanceM", 0.0);
+        boolean background = call.getBoolean("background", false);
+        if (intervalMs <= 0 || maxWaitMs < 0 || minDistanceM < 0) {
+            call.reject("intervalMs must be positive, maxWaitMs and minDistanceM non-negative");
+            return;
+        }
+
+        int priority;
+        switch (call.getString("priority", "high")) {
+            case "high":
+                priority = Priority.PRIORITY_HIGH_ACCURACY;
+                break;
+            case "balanced":
+                priority = Priority.PRIORITY_BALANCED_POWER_ACCURACY;
+                break;
+            case "low":
+                priority = Priority.PRIORITY_LOW_POWER;
+                break;
+            case "passive":
+                priority = Priority.PRIORITY_PASSIVE;
+                break;
+            default:
+                call.reject("priority must be one of high, balanced, low, passive");
+                return;
+        }
+
+        if (ContextCompat.checkSelfPermission(getContext(), Manifest.permission.ACCESS_FINE_LOCATION)
+                != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(getActivity(),
+                    new String[]{Manifest.permission.ACCESS_FINE_LOCATION},
+                    LOCATION_PERMISSION_REQUEST_CODE);
+            call.reject("Location permission not granted");
             return;
         }
 
-        // Get current location
-        fusedLocationClient.getLastLocation()
-                .addOnSuccessListener(getActivity(), location -> {
-                    if (location != null) {
-                        double latitude = location.getLatitude();
-                        double longitude = location.getLongitude();
-
-                        // Move camera to current location
-                        getActivity().runOnUiThread(() -> {
-                            if (googleMap != null) {
-                                LatLng currentLatLng = new LatLng(latitude, longitude);
-                                googleMap.animateCamera(
-                                        CameraUpdateFactory.newLatLngZoom(currentLatLng, 18f)
-                                );
-
-                                // Notify listeners
-                                JSObject data = new JSObject();
-                                data.put("latitude", latitude);
-                                data.put("longitude", longitude);
-                                data.put("accuracy", location.getAccuracy());
-                                notifyListeners("onLocationFound", data);
-
-                                // Resolve pending call if exists
-                                if (pendingLocationCall != null) {
-                                    pendingLocationCall.resolve(data);
-                                    pendingLocationCall = null;
-                                }
+        LocationRequest request = new LocationRequest.Builder(priority, intervalMs)
+                .setMaxUpdateDelayMillis(maxWaitMs)
+                .setMinUpdateDistanceMeters((float) minDistanceM)
+                .build();
+
+        runOnUiThread("startLocationTracking", () -> {
+            stopLocationUpdates();
+            LocationFilter filter = new LocationFilter(minDistanceM, TRACKING_MAX_SPEED_MPS);
+            LocationCallback callback = new LocationCallback() {
+                @Override
+                public void onLocationResult(LocationResult result) {
+                    if (trackingCallback == this) {
+                        emitLocationUpdate(filter, result);
+                    }
+                }
+            };
+            trackingRequest = request;
+            trackingCallback = callback;
+            trackingFilter = filter;
+            trackingInBackground = background;
+            trackingPaused = false;
+
+            try {
+                fusedLocationClient.requestLocationUpdates(request, callback, Looper.getMainLooper())
+                        .addOnSuccessListener(ignored -> call.resolve())
+                        .addOnFailureListener(e -> {
+                            if (trackingCallback == callback) {
+                                stopLocationUpdates();
                             }
+                            call.reject("Failed to start location tracking: " + e.getMessage());
                         });
-                    } else {
-                        if (pendingLocationCall != null) {
-                            pendingLocationCall.reject("Unable to get current location");
-                            pendingLocationCall = null;
-                        }
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    if (pendingLocationCall != null) {
-                        pendingLocationCall.reject("Failed to get location: " + e.getMessage());
-                        pendingLocationCall = null;
-                    }
-                });
+            } catch (SecurityException e) {
+                stopLocationUpdates();
+                call.reject("Location permission not granted");
+            }
+        });
+    }
+
+    @PluginMethod
+    public void stopLocationTracking(PluginCall call) {
+        runOnUiThread("stopLocationTracking", () -> {
+            JSObject result = new JSObject();
+            result.put("wasTracking", trackingCallback != null);
+            stopLocationUpdates();
+            call.resolve(result);
+        });
+    }
+
+    // One event per delivered batch, carrying every fix that passed the filter, oldest first.
+    // The newest one is repeated at the top level.
+    private void emitLocationUpdate(LocationFilter filter, LocationResult result) {
+        boolean wanted = wantsEvent("onLocationUpdate");
+        JSArray locations = new JSArray();
+        Location latest = null;
+        double latitude = 0;
+        double longitude = 0;
+        double accuracy = 0;
+        for (Location location : result.getLocations()) {
+            if (lastLocation == null || location.getElapsedRealtimeNanos() > lastLocation.getElapsedRealtimeNanos()) {
+                lastLocation = location;
+            }
+            double speed = location.hasSpeed() ? location.getSpeed() : Double.NaN;
+            long timeMs = location.getElapsedRealtimeNanos() / 1_000_000L;
+            if (!filter.offer(location.getLatitude(), location.getLongitude(), location.getAccuracy(), speed, timeMs)
+                    || !wanted) {
+                continue;
+            }
+            latest = location;
+            latitude = filter.latitude();
+            longitude = filter.longitude();
+            accuracy = filter.accuracy();
+            locations.put(locationFix(latest, latitude, longitude, accuracy));
+        }
+        if (latest == null) {
+            return;
+        }
+
+        JSObject data = locationFix(latest, latitude, longitude, accuracy);
+        data.put("locations", locations);
+        notifyListeners("onLocationUpdate", data);
+    }
+
+    // The smoothed position with the raw fix's speed, bearing and time
+    private static JSObject locationFix(Location location, double latitude, double longitude, double accuracy) {
+        JSObject fix = new JSObject();
+        fix.put("latitude", latitude);
+        fix.put("longitude", longitude);
+        fix.put("accuracy", accuracy);
+        if (location.hasSpeed()) {
+            fix.put("speed", location.getSpeed());
+        }
+        if (location.hasBearing()) {
+            fix.put("bearing", location.getBearing());
+        }
+        fix.put("timestamp", location.getTime());
+        return fix;
+    }
+
+    // Must be called on the UI thread
+    private void stopLocationUpdates() {
+        if (trackingCallback != null && !trackingPaused) {
+            fusedLocationClient.removeLocationUpdates(trackingCallback);
+        }
+        trackingRequest = null;
+        trackingCallback = null;
+        trackingFilter = null;
+        trackingPaused = false;
     }
 
     @PluginMethod
     public void moveToPosition(PluginCall call) {
-        getActivity().runOnUiThread(() -> {
+        runOnUiThread("moveToPosition", () -> {
             if (googleMap == null) {
                 call.reject("Map not ready");
                 return;
@@ -421,7 +1184,7 @@ public class CapacitorMapSdkPlugin extends Plugin {
 
     @PluginMethod
     public void updateMapBounds(PluginCall call) {
-        getActivity().runOnUiThread(() -> {
+        runOnUiThread("updateMapBounds", () -> {
             if (mapContainer == null) {
                 call.reject("Map not initialized");
                 return;
@@ -440,51 +1203,104 @@ public class CapacitorMapSdkPlugin extends Plugin {
                 return;
             }
 
-            Bridge bridge = getBridge();
-
-            // Update stored values
+            // Update stored values; the layout itself waits for the next frame so a burst
+            // of updates (e.g. during a sheet animation) costs one relayout per vsync
             mapX = x;
             mapY = y;
             mapWidth = width;
             mapHeight = height;
 
-            // Update map position and size
-            FrameLayout.LayoutParams layoutParams = (FrameLayout.LayoutParams) mapView.getLayoutParams();
-            layoutParams.leftMargin = getScaledPixels(bridge, x);
-            layoutParams.topMargin = getScaledPixels(bridge, y);
-            layoutParams.width = getScaledPixels(bridge, width);
-            layoutParams.height = getScaledPixels(bridge, height);
+            pendingBoundsCalls.add(call);
+            if (!boundsFramePosted) {
+                boundsFramePosted = true;
+                Choreographer.getInstance().postFrameCallback(boundsFrameCallback);
+            }
+        });
+    }
 
-            mapView.setLayoutParams(layoutParams);
-            mapView.requestLayout();
+    // Frame callback: applies the latest stored bounds and resolves every call that set them
+    private void applyMapBounds(long frameTimeNanos) {
+        boundsFramePosted = false;
+        if (mapView != null) {
+            Bridge bridge = getBridge();
+            int left = getScaledPixels(bridge, mapX);
+            int top = getScaledPixels(bridge, mapY);
+            int width = getScaledPixels(bridge, mapWidth);
+            int height = getScaledPixels(bridge, mapHeight);
 
-            // Reposition the location button to match the updated map bounds
-            applyLocationButtonPosition();
+            // Update map position and size
+            FrameLayout.LayoutParams layoutParams = (FrameLayout.LayoutParams) mapView.getLayoutParams();
+            if (layoutParams.leftMargin != left || layoutParams.topMargin != top
+                    || layoutParams.width != width || layoutParams.height != height) {
+                layoutParams.leftMargin = left;
+                layoutParams.topMargin = top;
+                layoutParams.width = width;
+                layoutParams.height = height;
+                mapView.setLayoutParams(layoutParams);
+
+                // Reposition the location button to match the updated map bounds
+                applyLocationButtonPosition();
+            }
+        }
 
+        for (PluginCall call : pendingBoundsCalls) {
             call.resolve();
-        });
+        }
+        pendingBoundsCalls.clear();
     }
 
+    /**
+     * With keep: true the map is hidden and paused instead of destroyed, and the next
+     * initialize reuses it. Markers and shapes are cleared either way.
+     */
     @PluginMethod
     public void destroyMap(PluginCall call) {
-        getActivity().runOnUiThread(() -> {
-            if (mapContainer != null) {
-                ViewGroup webViewParent = (ViewGroup) getBridge().getWebView().getParent();
-                View viewToRemove = webViewParent.findViewWithTag(mapId);
-                if (viewToRemove != null) {
-                    webViewParent.removeView(viewToRemove);
+        boolean keep = call.getBoolean("keep", false);
+        runOnUiThread("destroyMap", () -> {
+            if (keep && mapView != null && googleMap != null && warmMapView == null) {
+                googleMap.clear();
+                if (currentLocationButton != null) {
+                    mapContainer.removeView(currentLocationButton);
+                }
+                mapView.onPause();
+                mapContainer.setVisibility(View.GONE);
+                warmMapView = mapView;
+                warmMapContainer = mapContainer;
+                warmGoogleMap = googleMap;
+                warmStartType = "reused";
+            } else {
+                if (mapContainer != null) {
+                    ViewGroup webViewParent = (ViewGroup) getBridge().getWebView().getParent();
+                    webViewParent.removeView(mapContainer);
                 }
-            }
 
-            if (mapView != null) {
-                mapView.onDestroy();
+                if (mapView != null) {
+                    mapView.onDestroy();
+                }
             }
 
+            adoptingCall = null;
             googleMap = null;
             mapView = null;
             mapContainer = null;
             currentLocationButton = null;
 
+            // Markers died with the map; forget them so a new map starts clean
+            markerRegistry.clear();
+            resetClusterState();
+            resetVirtualMarkers();
+            stopMarkerAnimations();
+            shapes.clear();
+            heatmaps.clear();
+            for (TileLayer layer : tileLayers.values()) {
+                closeTileLayer(layer);
+            }
+            tileLayers.clear();
+            mainHandler.removeCallbacks(trailingBoundsEmission);
+            boundsThrottle.reset();
+            mainHandler.removeCallbacks(trailingDragEmission);
+            draggingMarker = null;
+
             call.resolve();
         });
     }
@@ -496,7 +1312,7 @@ public class CapacitorMapSdkPlugin extends Plugin {
             return;
         }
 
-        getActivity().runOnUiThread(() -> {
+        runOnUiThread("enableMapInteraction", () -> {
             // Bring map to front when interaction is needed
             if (mapContainer != null) {
                 mapContainer.bringToFront();
@@ -521,7 +1337,7 @@ public class CapacitorMapSdkPlugin extends Plugin {
             return;
         }
 
-        getActivity().runOnUiThread(() -> {
+        runOnUiThread("disableMapInteraction", () -> {
             // Reset elevation and bring WebView to front
             if (mapContainer != null) {
                 mapContainer.setElevation(-40f);
@@ -536,27 +1352,22 @@ public class CapacitorMapSdkPlugin extends Plugin {
 
     private void setupMapListeners() {
         googleMap.setOnMarkerClickListener(marker -> {
+            ClusterIndex.Cluster cluster = clusterMarkers.get(marker.getId());
+            if (cluster != null) {
+                notifyClusterClick(cluster);
+                return true;
+            }
+
             LatLng position = marker.getPosition();
 
             Projection projection = googleMap.getProjection();
             Point screenPoint = projection.toScreenLocation(position);
 
-            int[] mapLocation = new int[2];
-            mapView.getLocationOnScreen(mapLocation);
-
-            int[] containerLocation = new int[2];
-            mapContainer.getLocationOnScreen(containerLocation);
-
+            int[] origin = webViewOrigin();
             float density = getActivity().getResources().getDisplayMetrics().density;
 
-            int mapPaddingLeft = mapView.getPaddingLeft();
-            int mapPaddingTop = mapView.getPaddingTop();
-
-            int absoluteX = (int) ((mapLocation[0] + screenPoint.x + mapPaddingLeft) / density);
-            int absoluteY = (int) ((mapLocation[1] + screenPoint.y + mapPaddingTop) / density);
-
-            int webViewX = (int) ((containerLocation[0] + mapX + screenPoint.x) / density);
-            int webViewY = (int) ((containerLocation[1] + mapY + screenPoint.y) / density);
+            int webViewX = (int) ((origin[0] + screenPoint.x) / density);
+            int webViewY = (int) ((origin[1] + screenPoint.y) / density);
 
             JSObject data = new JSObject();
             data.put("mapId", mapId);
@@ -571,17 +1382,28 @@ public class CapacitorMapSdkPlugin extends Plugin {
             data.put("mapX", screenPoint.x);
             data.put("mapY", screenPoint.y);
 
-            data.put("debug", new JSObject() {{
-                put("mapLocationX", mapLocation[0]);
-                put("mapLocationY", mapLocation[1]);
-                put("containerLocationX", containerLocation[0]);
-                put("containerLocationY", containerLocation[1]);
-                put("density", density);
-                put("mapX", absoluteX);
-                put("mapY", absoluteY);
-                put("screenPointX", screenPoint.x);
-                put("screenPointY", screenPoint.y);
-            }});
+            if (clickDebug) {
+                int[] mapLocation = new int[2];
+                mapView.getLocationOnScreen(mapLocation);
+
+                int[] containerLocation = new int[2];
+                mapContainer.getLocationOnScreen(containerLocation);
+
+                int absoluteX = (int) ((mapLocation[0] + screenPoint.x + mapView.getPaddingLeft()) / density);
+                int absoluteY = (int) ((mapLocation[1] + screenPoint.y + mapView.getPaddingTop()) / density);
+
+                data.put("debug", new JSObject() {{
+                    put("mapLocationX", mapLocation[0]);
+                    put("mapLocationY", mapLocation[1]);
+                    put("containerLocationX", containerLocation[0]);
+                    put("containerLocationY", containerLocation[1]);
+                    put("density", density);
+                    put("mapX", absoluteX);
+                    put("mapY", absoluteY);
+                    put("screenPointX", screenPoint.x);
+                    put("screenPointY", screenPoint.y);
+                }});
+            }
 
             notifyListeners("onMarkerClick", data);
             return true;
@@ -590,6 +1412,11 @@ public class CapacitorMapSdkPlugin extends Plugin {
         googleMap.setOnMarkerDragListener(new GoogleMap.OnMarkerDragListener() {
             @Override
             public void onMarkerDragStart(Marker marker) {
+                mainHandler.removeCallbacks(trailingDragEmission);
+                dragThrottle.reset();
+                draggingMarker = marker;
+                markerAnimator.cancel(marker.getId());
+
                 JSObject data = new JSObject();
                 data.put("mapId", mapId);
                 data.put("markerId", marker.getId());
@@ -601,40 +1428,54 @@ public class CapacitorMapSdkPlugin extends Plugin {
 
             @Override
             public void onMarkerDrag(Marker marker) {
-                JSObject data = new JSObject();
-                data.put("mapId", mapId);
-                data.put("markerId", marker.getId());
-                data.put("latitude", marker.getPosition().latitude);
-                data.put("longitude", marker.getPosition().longitude);
-                data.put("title", marker.getTitle());
-                notifyListeners("onMarkerDrag", data);
+                // Called for every drag step; skipped steps cost nothing, the trailing
+                // emission reads the marker's latest position when it fires
+                if (suppressIntermediateDrag || !wantsEvent("onMarkerDrag")) {
+                    return;
+                }
+                draggingMarker = marker;
+                long decision = dragThrottle.offer(SystemClock.uptimeMillis());
+                if (decision == EventThrottle.EMIT_NOW) {
+                    emitMarkerDrag(marker);
+                } else if (decision > 0) {
+                    mainHandler.postDelayed(trailingDragEmission, decision);
+                }
             }
 
             @Override
             public void onMarkerDragEnd(Marker marker) {
+                // The end event carries the final position, so a pending drag update is redundant
+                mainHandler.removeCallbacks(trailingDragEmission);
+                dragThrottle.reset();
+                draggingMarker = null;
+
                 JSObject data = new JSObject();
                 double lat = marker.getPosition().latitude;
                 double lng = marker.getPosition().longitude;
 
+                // Keep the registry in sync so clustering and setMarkers see the new position
+                MarkerRegistry.Entry<Marker> entry = markerRegistry.entry(marker.getId());
+                if (entry != null) {
+                    markerRegistry.add(entry.id, marker, entry.spec.withPosition(lat, lng), entry.zIndex, entry.stacked);
+                }
+
                 data.put("mapId", mapId);
                 data.put("markerId", marker.getId());
                 data.put("latitude", lat);
                 data.put("longitude", lng);
                 data.put("title", marker.getTitle());
 
-                // Reverse geocoding
-                Geocoder geocoder = new Geocoder(getContext(), Locale.getDefault());
-                try {
-                    List<Address> addresses = geocoder.getFromLocation(lat, lng, 1);
-                    if (addresses != null && !addresses.isEmpty()) {
-                        Address address = addresses.get(0);
-                        data.put("address", address.getAddressLine(0));
-                    }
-                } catch (IOException e) {
-                    Log.e(MAPS_TAG, "Geocoder error", e);
+                // Send the event straight away; the address follows in onMarkerAddressResolved.
+                // A cached address is included here too, as before.
+                String cachedAddress = reverseGeocoder.cachedAddress(lat, lng);
+                if (cachedAddress != null) {
+                    data.put("address", cachedAddress);
                 }
-
                 notifyListeners("onMarkerDragEnd", data);
+
+                if (wantsEvent("onMarkerAddressResolved")) {
+                    resolveMarkerAddress(marker.getId(), lat, lng);
+                }
             }
         });
 
@@ -647,39 +1488,248 @@ public class CapacitorMapSdkPlugin extends Plugin {
             notifyListeners("onMapClick", data);
         });
 
-        googleMap.setOnCameraMoveListener(() -> {
+        googleMap.setOnCameraMoveListener(this::onCameraMove);
+        googleMap.setOnCameraIdleListener(this::onCameraIdle);
+    }
+
+    // Runs on the UI thread for every camera frame, so nothing is built unless it will be sent
+    private void onCameraMove() {
+        if (boundsIdleOnly || !wantsEvent("onBoundsChanged")) {
+            return;
+        }
+        long decision = boundsThrottle.offer(SystemClock.uptimeMillis());
+        if (decision == EventThrottle.EMIT_NOW) {
+            emitBoundsChanged();
+        } else if (decision > 0) {
+            mainHandler.postDelayed(trailingBoundsEmission, decision);
+        }
+    }
+
+    // Runs on the UI thread once the camera settles after a gesture or animation
+    private void onCameraIdle() {
+        // Deliver the final bounds now rather than when the trailing timer fires
+        if (boundsIdleOnly || boundsThrottle.isTrailingPending()) {
+            mainHandler.removeCallbacks(trailingBoundsEmission);
+            if (wantsEvent("onBoundsChanged")) {
+                emitBoundsChanged();
+            }
+        }
+        boundsThrottle.reset();
+
+        if (wantsEvent("onCameraIdle")) {
+            CameraPosition camera = googleMap.getCameraPosition();
             LatLngBounds bounds = googleMap.getProjection().getVisibleRegion().latLngBounds;
             JSObject data = new JSObject();
-
+            data.put("mapId", mapId);
+            data.put("latitude", camera.target.latitude);
+            data.put("longitude", camera.target.longitude);
+            data.put("zoom", camera.zoom);
+            data.put("bearing", camera.bearing);
+            data.put("tilt", camera.tilt);
             data.put("north", bounds.northeast.latitude);
             data.put("south", bounds.southwest.latitude);
             data.put("east", bounds.northeast.longitude);
             data.put("west", bounds.southwest.longitude);
-            data.put("center_lat", bounds.getCenter().latitude);
-            data.put("center_lng", bounds.getCenter().longitude);
-            notifyListeners("onBoundsChanged", data);
+            notifyListeners("onCameraIdle", data);
+        }
+
+        refreshClusters();
+        refreshVirtualMarkers();
+        updateShapeDetail();
+    }
+
+    private void resolveMarkerAddress(String markerId, double lat, double lng) {
+        reverseGeocoder.resolve(lat, lng, (status, address, cached) -> {
+            JSObject data = new JSObject();
+            data.put("mapId", mapId);
+            data.put("markerId", markerId);
+            data.put("latitude", lat);
+            data.put("longitude", lng);
+            data.put("status", status.name().toLowerCase(Locale.ROOT));
+            data.put("cached", cached);
+            if (address != null) {
+                data.put("address", address);
+            }
+            notifyListeners("onMarkerAddressResolved", data);
+        });
+    }
+
+    // Runs on geocodeExecutor
+    private String lookupAddress(double lat, double lng) throws IOException {
+        if (!Geocoder.isPresent()) {
+            return null;
+        }
+        Geocoder geocoder = new Geocoder(getContext(), Locale.getDefault());
+        List<Address> addresses = geocoder.getFromLocation(lat, lng, 1);
+        if (addresses == null || addresses.isEmpty()) {
+            return null;
+        }
+        return addresses.get(0).getAddressLine(0);
+    }
+
+    private void emitMarkerDrag(Marker marker) {
+        JSObject data = new JSObject();
+        data.put("mapId", mapId);
+        data.put("markerId", marker.getId());
+        data.put("latitude", marker.getPosition().latitude);
+        data.put("longitude", marker.getPosition().longitude);
+        data.put("title", marker.getTitle());
+        notifyListeners("onMarkerDrag", data);
+    }
+
+    private void emitBoundsChanged() {
+        if (googleMap == null) {
+            return;
+        }
+        LatLngBounds bounds = googleMap.getProjection().getVisibleRegion().latLngBounds;
+        JSObject data = new JSObject();
+
+        data.put("north", bounds.northeast.latitude);
+        data.put("south", bounds.southwest.latitude);
+        data.put("east", bounds.northeast.longitude);
+        data.put("west", bounds.southwest.longitude);
+        data.put("center_lat", bounds.getCenter().latitude);
+        data.put("center_lng", bounds.getCenter().longitude);
+        notifyListeners("onBoundsChanged", data);
+    }
+
+    /**
+     * maxRate caps onMarkerDrag in events per second (0 = every drag step); the latest position
+     * is always delivered. suppressIntermediate drops onMarkerDrag entirely, leaving only
+     * onMarkerDragStart and onMarkerDragEnd.
+     */
+    @PluginMethod
+    public void setDragEventOptions(PluginCall call) {
+        double maxRate = call.getDouble("maxRate", 0.0);
+        boolean suppressIntermediate = call.getBoolean("suppressIntermediate", false);
+        runOnUiThread("setDragEventOptions", () -> {
+            mainHandler.removeCallbacks(trailingDragEmission);
+            dragThrottle.configure(maxRate, true);
+            suppressIntermediateDrag = suppressIntermediate;
+            call.resolve();
+        });
+    }
+
+    /**
+     * maxRate caps onBoundsChanged in events per second (0 = every camera frame). With trailing
+     * the last position of a burst is delivered once the interval has passed; without it the
+     * final position only arrives with onCameraIdle. idleOnly sends onBoundsChanged once per
+     * camera idle instead of during the move.
+     */
+    @PluginMethod
+    public void setCameraEventOptions(PluginCall call) {
+        double maxRate = call.getDouble("maxRate", 0.0);
+        boolean trailing = call.getBoolean("trailing", true);
+        boolean idleOnly = call.getBoolean("idleOnly", false);
+        runOnUiThread("setCameraEventOptions", () -> {
+            mainHandler.removeCallbacks(trailingBoundsEmission);
+            boundsThrottle.configure(maxRate, trailing);
+            boundsIdleOnly = idleOnly;
+            call.resolve();
+        });
+    }
+
+    /** debug adds the raw view locations and density used for screenX/screenY to onMarkerClick. */
+    @PluginMethod
+    public void setClickEventOptions(PluginCall call) {
+        boolean debug = call.getBoolean("debug", false);
+        runOnUiThread("setClickEventOptions", () -> {
+            clickDebug = debug;
+            call.resolve();
+        });
+    }
+
+    /**
+     * Converts points: [{latitude, longitude}] to WebView CSS pixels in one main-thread pass,
+     * using the same origin as the screenX/screenY of onMarkerClick. visible is false for
+     * points outside the map view.
+     */
+    @PluginMethod
+    public void projectToScreen(PluginCall call) {
+        double[] coordinates;
+        try {
+            coordinates = parsePointArray(call.getArray("points"), "latitude", "longitude");
+        } catch (JSONException e) {
+            call.reject(e.getMessage());
+            return;
+        }
+        runOnUiThread("projectToScreen", () -> {
+            if (googleMap == null || mapContainer == null) {
+                call.reject("Map not ready");
+                return;
+            }
+            Projection projection = googleMap.getProjection();
+            int[] origin = webViewOrigin();
+            float density = getActivity().getResources().getDisplayMetrics().density;
+            int width = mapView.getWidth();
+            int height = mapView.getHeight();
+
+            JSArray points = new JSArray();
+            for (int i = 0; i < coordinates.length; i += 2) {
+                Point screenPoint = projection.toScreenLocation(new LatLng(coordinates[i], coordinates[i + 1]));
+                JSObject point = new JSObject();
+                point.put("x", (int) ((origin[0] + screenPoint.x) / density));
+                point.put("y", (int) ((origin[1] + screenPoint.y) / density));
+                point.put("visible", screenPoint.x >= 0 && screenPoint.y >= 0
+                        && screenPoint.x < width && screenPoint.y < height);
+                points.put(point);
+            }
+            JSObject result = new JSObject();
+            result.put("points", points);
+            call.resolve(result);
+        });
+    }
+
+    /** Inverse of projectToScreen: points: [{x, y}] in WebView CSS pixels to coordinates. */
+    @PluginMethod
+    public void projectToLatLng(PluginCall call) {
+        double[] pixels;
+        try {
+            pixels = parsePointArray(call.getArray("points"), "x", "y");
+        } catch (JSONException e) {
+            call.reject(e.getMessage());
+            return;
+        }
+        runOnUiThread("projectToLatLng", () -> {
+            if (googleMap == null || mapContainer == null) {
+                call.reject("Map not ready");
+                return;
+            }
+            Projection projection = googleMap.getProjection();
+            int[] origin = webViewOrigin();
+            float density = getActivity().getResources().getDisplayMetrics().density;
+
+            JSArray points = new JSArray();
+            Point screenPoint = new Point();
+            for (int i = 0; i < pixels.length; i += 2) {
+                screenPoint.x = Math.round((float) pixels[i] * density) - origin[0];
+                screenPoint.y = Math.round((float) pixels[i + 1] * density) - origin[1];
+                LatLng position = projection.fromScreenLocation(screenPoint);
+                JSObject point = new JSObject();
+                point.put("latitude", position.latitude);
+                point.put("longitude", position.longitude);
+                points.put(point);
+            }
+            JSObject result = new JSObject();
+            result.put("points", points);
+            call.resolve(result);
         });
     }
 
     @PluginMethod
     public void clearMarkers(PluginCall call) {
-        getActivity().runOnUiThread(() -> {
+        runOnUiThread("clearMarkers", () -> {
             if (googleMap == null) {
                 call.reject("Map not ready");
                 return;
             }
 
             try {
-                // Remove all markers from the map
-                for (Marker marker : markers) {
-                    if (marker != null) {
-                        marker.remove();
-                    }
+                // Remove all markers from the map and the registry
+                for (Marker marker : markerRegistry.clear()) {
+                    marker.remove();
                 }
-
-                // Clear the markers list and title map
-                markers.clear();
-                markersByTitle.clear();
+                onMarkersChanged();
 
                 JSObject result = new JSObject();
                 result.put("cleared", true);
@@ -695,7 +1745,7 @@ public class CapacitorMapSdkPlugin extends Plugin {
 
     @PluginMethod
     public void clearExpectMarkers(PluginCall call){
-      getActivity().runOnUiThread(() -> {
+      runOnUiThread("clearExpectMarkers", () -> {
             if (googleMap == null) {
                 call.reject("Map not ready");
                 return;
@@ -711,32 +1761,12 @@ public class CapacitorMapSdkPlugin extends Plugin {
                     }
             
                 }
-                // Collect markers to keep (those in the stringList)
-                List<Marker> markersToKeep = new ArrayList<>();
+                // Drop every title bucket that is not in the keep list
                 Set<String> titlesToKeep = new HashSet<>(stringList);
-
-                for (Marker marker : markers) {
-                    if (marker != null) {
-                        String markerTitle = marker.getTitle();
-                        if (titlesToKeep.contains(markerTitle)) {
-                            markersToKeep.add(marker);
-                        } else {
-                            marker.remove();
-                        }
-                    }
-                }
-
-                // Update markers list to only contain kept markers
-                markers = markersToKeep;
-
-                // Update title map to only contain kept markers
-                markersByTitle.clear();
-                for (Marker marker : markers) {
-                    if (marker != null) {
-                        String title = marker.getTitle();
-                        markersByTitle.computeIfAbsent(title, k -> new ArrayList<>()).add(marker);
-                    }
+                for (Marker marker : markerRegistry.removeAllExcept(titlesToKeep)) {
+                    marker.remove();
                 }
+                onMarkersChanged();
 
                 JSObject result = new JSObject();
                 result.put("cleared", true);
@@ -752,7 +1782,7 @@ public class CapacitorMapSdkPlugin extends Plugin {
 
     @PluginMethod
     public void addMarker(PluginCall call) {
-        getActivity().runOnUiThread(() -> {
+        runOnUiThread("addMarker", () -> {
             if (googleMap == null) {
                 call.reject("Map not ready");
                 return;
@@ -762,29 +1792,22 @@ public class CapacitorMapSdkPlugin extends Plugin {
             double lng = call.getDouble("longitude", 0.0);
             String title = call.getString("title", "");
             boolean draggable = call.getBoolean("draggable", false);
+            Float zIndex = call.getFloat("zIndex");
 
-            LatLng position = new LatLng(lat, lng);
-            Marker marker = googleMap.addMarker(new MarkerOptions()
-                    .position(position)
-                    .title(title)
-                    .draggable(draggable)
-            );
-
-            if (marker != null) {
-                markers.add(marker);
-                // Add to title map for efficient lookups
-                markersByTitle.computeIfAbsent(title, k -> new ArrayList<>()).add(marker);
-            }
+            MarkerSpec spec = new MarkerSpec(call.getString("id"), lat, lng, title, draggable, zIndex, null, null, null);
+            Marker marker = placeMarker(spec, null);
+            onMarkersChanged();
 
             JSObject result = new JSObject();
             result.put("markerId", marker.getId());
+            result.put("handle", markerHandle(marker));
             call.resolve(result);
         });
     }
 
     @PluginMethod
 public void clearMarkersByTitle(PluginCall call) {
-    getActivity().runOnUiThread(() -> {
+    runOnUiThread("clearMarkersByTitle", () -> {
         if (googleMap == null) {
             call.reject("Map not ready");
             return;
@@ -798,20 +1821,13 @@ public void clearMarkersByTitle(PluginCall call) {
                 return;
             }
 
-            // Use title map for O(1) lookup instead of O(n) loop
-            List<Marker> markersToRemove = markersByTitle.get(title);
-
-            int removedCount = 0;
-            if (markersToRemove != null && !markersToRemove.isEmpty()) {
-                // Remove markers from map and lists
-                for (Marker marker : markersToRemove) {
-                    marker.remove();
-                    markers.remove(marker);
-                    removedCount++;
-                }
-                // Clear the title map entry
-                markersByTitle.remove(title);
+            // Title index lookup — O(k) in the number of markers removed
+            List<Marker> markersToRemove = markerRegistry.removeByTitle(title);
+            for (Marker marker : markersToRemove) {
+                marker.remove();
             }
+            int removedCount = markersToRemove.size();
+            onMarkersChanged();
 
             JSObject result = new JSObject();
             result.put("cleared", true);
@@ -827,165 +1843,1854 @@ public void clearMarkersByTitle(PluginCall call) {
 }
 
     @PluginMethod
-    public void addCustomMarker(PluginCall call) throws JSONException {
-        getActivity().runOnUiThread(() -> {
-            if (googleMap == null) {
-                call.reject("Map not ready");
-                return;
-            }
+    public void removeMarker(PluginCall call) {
+        String markerId = call.getString("markerId");
+        if (markerId == null || markerId.isEmpty()) {
+            call.reject("markerId is required");
+            return;
+        }
 
-            JSObject position = call.getObject("position", null);
-            String iconImage = call.getString("iconImage", null);
-            String title = call.getString("title", "");
-            if (position == null) {
-                call.reject("position is required");
-                return;
+        runOnUiThread("removeMarker", () -> {
+            Marker marker = markerRegistry.remove(markerId);
+            if (marker != null) {
+                marker.remove();
+                onMarkersChanged();
             }
 
-            double lat, lng = 0;
-            try {
-                lat = position.getDouble("latitude");
-                lng = position.getDouble("longitude");
-            } catch (JSONException e) {
-                throw new RuntimeException(e);
-            }
-            LatLng latLng = new LatLng(lat, lng);
-            Bitmap bitmap = null;
-
-            if (iconImage != null && iconImage.startsWith("data:image")) {
-                // Handle base64 image — scale to a fixed dp target so the marker
-                // appears at the same physical size on phones and tablets
-                String base64Data = iconImage.substring(iconImage.indexOf(",") + 1);
-                byte[] decodedBytes = Base64.decode(base64Data, Base64.DEFAULT);
-                Bitmap original = BitmapFactory.decodeByteArray(decodedBytes, 0, decodedBytes.length);
-
-                int targetPx = getScaledPixels(getBridge(), 36); // 36dp on every screen
-                float aspectRatio = (float) original.getHeight() / original.getWidth();
-                int newWidth  = targetPx;
-                int newHeight = Math.round(targetPx * aspectRatio);
-                bitmap = Bitmap.createScaledBitmap(original, newWidth, newHeight, true);
-            } else {
-                try {
-                    JSArray colorArray = call.getArray("colors");
-                    String icon = call.getString("mdiIcon", "default");
+            JSObject result = new JSObject();
+            result.put("removed", marker != null);
+            call.resolve(result);
+        });
+    }
 
-                    String color1 = colorArray.getString(0);
-                    String color2 = colorArray.getString(1);
-                    String color3 = colorArray.getString(2);
+    @PluginMethod
+    public void removeMarkers(PluginCall call) {
+        JSArray idsArray = call.getArray("markerIds");
+        if (idsArray == null) {
+            call.reject("markerIds is required");
+            return;
+        }
 
-                    bitmap = generateMarkerBitmap(color1, color2, color3, icon);
-                } catch (JSONException e) {
-                    call.reject("Invalid color array");
-                    return;
-                }
-            }
-            float zIndex;
-            if ("userMarker".equals(title)) {
-                // Give userMarker the highest z-index to always be on top
-                zIndex = 999999f;
-            } else {
-                // Calculate the highest z-index from existing markers (excluding userMarker)
-                float highestZIndex = 0f;
-                for (Marker existingMarker : markers) {
-                    if (existingMarker != null &&
-                        !"userMarker".equals(existingMarker.getTitle()) &&
-                        existingMarker.getZIndex() > highestZIndex) {
-                        highestZIndex = existingMarker.getZIndex();
-                    }
-                }
-                zIndex = highestZIndex + 1f;
+        List<String> markerIds = new ArrayList<>(idsArray.length());
+        try {
+            for (int i = 0; i < idsArray.length(); i++) {
+                markerIds.add(idsArray.getString(i));
             }
+        } catch (JSONException e) {
+            call.reject("markerIds must be an array of strings");
+            return;
+        }
 
-
-            // Add marker with z-index higher than all existing markers
-            Marker marker = googleMap.addMarker(new MarkerOptions()
-                    .position(latLng)
-                    .icon(BitmapDescriptorFactory.fromBitmap(bitmap))
-                    .title(title)
-                    .zIndex(zIndex)  // Set z-index to be on top
-            );
-
-            if (marker != null) {
-                markers.add(marker);
-                // Add to title map for efficient lookups
-                markersByTitle.computeIfAbsent(title, k -> new ArrayList<>()).add(marker);
+        runOnUiThread("removeMarkers", () -> {
+            int removedCount = 0;
+            for (String markerId : markerIds) {
+                Marker marker = markerRegistry.remove(markerId);
+                if (marker != null) {
+                    marker.remove();
+                    removedCount++;
+                }
             }
+            onMarkersChanged();
 
             JSObject result = new JSObject();
-            result.put("markerId", marker.getId());
+            result.put("removedCount", removedCount);
             call.resolve(result);
         });
     }
 
     @PluginMethod
-    public void moveCamera(PluginCall call) {
-        getActivity().runOnUiThread(() -> {
-            if (googleMap == null) {
-                call.reject("Map not ready");
+    public void addCustomMarker(PluginCall call) throws JSONException {
+        if (googleMap == null) {
+            call.reject("Map not ready");
+            return;
+        }
+
+        if (call.getObject("position", null) == null) {
+            call.reject("position is required");
+            return;
+        }
+
+        // Decode and draw the icon on the worker thread; only addMarker runs on the UI thread
+        runInBackground(iconExecutor, "addCustomMarker", () -> {
+            MarkerSpec spec;
+            BitmapDescriptor icon;
+            try {
+                long decodeStart = performance.start();
+                spec = MarkerSpec.fromJSON(call.getData());
+                performance.stop(PerformanceMonitor.Phase.DECODE, decodeStart);
+                icon = createMarkerIcon(spec);
+            } catch (JSONException e) {
+                call.reject("Invalid color array");
+                return;
+            } catch (IllegalArgumentException e) {
+                call.reject("Invalid marker icon: " + e.getMessage());
                 return;
             }
 
-            double lat = call.getDouble("latitude", 0.0);
-            double lng = call.getDouble("longitude", 0.0);
-            float zoom = call.getFloat("zoom", 14.0F);
+            runOnUiThread("addCustomMarker", () -> {
+                if (googleMap == null) {
+                    call.reject("Map not ready");
+                    return;
+                }
 
-            LatLng position = new LatLng(lat, lng);
-            googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(position, zoom));
-            call.resolve();
+                Marker marker = placeMarker(spec, icon);
+                onMarkersChanged();
+
+                JSObject result = new JSObject();
+                result.put("markerId", marker.getId());
+                result.put("handle", markerHandle(marker));
+                call.resolve(result);
+            });
         });
     }
 
     @PluginMethod
-    public void setZoomLimits(PluginCall call) {
-        getActivity().runOnUiThread(() -> {
+    public void addMarkers(PluginCall call) {
+        JSArray markersArray = call.getArray("markers");
+        if (markersArray == null) {
+            call.reject("markers is required");
+            return;
+        }
+        // Icons can only be created once the Maps SDK is initialized
+        if (googleMap == null) {
+            call.reject("Map not ready");
+            return;
+        }
+
+        // Decode every spec and render custom icons on the worker thread, so the
+        // UI thread only pays for GoogleMap.addMarker — one runnable for the whole batch
+        runInBackground(iconExecutor, "addMarkers", () -> {
+            int count = markersArray.length();
+            List<MarkerSpec> specs = new ArrayList<>(count);
+            List<BitmapDescriptor> icons = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                try {
+                    long decodeStart = performance.start();
+                    MarkerSpec spec = MarkerSpec.fromJSON(markersArray.getJSONObject(i));
+                    performance.stop(PerformanceMonitor.Phase.DECODE, decodeStart);
+                    specs.add(spec);
+                    icons.add(spec.isCustom() ? createMarkerIcon(spec) : null);
+                } catch (JSONException | IllegalArgumentException e) {
+                    call.reject("Invalid marker at index " + i + ": " + e.getMessage());
+                    return;
+                }
+            }
+
+            addMarkersOnUiThread(call, specs, icons);
+        });
+    }
+
+    private void addMarkersOnUiThread(PluginCall call, List<MarkerSpec> specs, List<BitmapDescriptor> icons) {
+        runOnUiThread("addMarkers", () -> {
             if (googleMap == null) {
                 call.reject("Map not ready");
                 return;
             }
 
-            Float minZoom = call.getFloat("minZoom");
-            Float maxZoom = call.getFloat("maxZoom");
-
-            try {
-                UiSettings uiSettings = googleMap.getUiSettings();
-                if (minZoom != null) {
-                    googleMap.setMinZoomPreference(minZoom);
-                }
-                if (maxZoom != null) {
-                    googleMap.setMaxZoomPreference(maxZoom);
-                }
-                call.resolve();
-            } catch (Exception e) {
-                call.reject("Failed to set zoom limits: " + e.getMessage());
+            JSArray markerIds = new JSArray();
+            JSArray handles = new JSArray();
+            for (int i = 0; i < specs.size(); i++) {
+                Marker marker = placeMarker(specs.get(i), icons.get(i));
+                markerIds.put(marker != null ? marker.getId() : null);
+                handles.put(markerHandle(marker));
             }
+            onMarkersChanged();
+
+            JSObject result = new JSObject();
+            result.put("markerIds", markerIds);
+            result.put("handles", handles);
+            call.resolve(result);
         });
     }
 
-    // Helper method to get scaled pixels (similar to Kotlin version)
-    private int getScaledPixels(Bridge bridge, int pixels) {
-        float scale = bridge.getActivity().getResources().getDisplayMetrics().density;
-        return (int) (pixels * scale + 0.5f);
-    }
+    @PluginMethod
+    public void setMarkers(PluginCall call) {
+        JSArray markersArray = call.getArray("markers");
+        if (markersArray == null) {
+            call.reject("markers is required");
+            return;
+        }
+        if (googleMap == null) {
+            call.reject("Map not ready");
+            return;
+        }
 
-    @Override
-    protected void handleOnPause() {
-        super.handleOnPause();
-        if (mapView != null) mapView.onPause();
-    }
+        runInBackground(iconExecutor, "setMarkers", () -> {
+            List<MarkerSpec> desired;
+            try {
+                desired = parseMarkerSpecs(markersArray);
+            } catch (JSONException e) {
+                call.reject(e.getMessage());
+                return;
+            }
 
-    @Override
-    protected void handleOnResume() {
-        super.handleOnResume();
-        if (mapView != null) mapView.onResume();
-    }
+            // The diff reads the registry, so it is computed on the UI thread; only the
+            // icons of added or restyled markers are then built back on the worker thread
+            runOnUiThread("setMarkers", () -> {
+                MarkerDiff diff;
+                try {
+                    diff = MarkerDiff.compute(markerRegistry, desired);
+                } catch (IllegalArgumentException e) {
+                    call.reject(e.getMessage());
+                    return;
+                }
 
-    @Override
-    protected void handleOnDestroy() {
-        super.handleOnDestroy();
-        if (mapView != null) mapView.onDestroy();
+                List<MarkerSpec> needIcons = diff.specsNeedingIcons();
+                if (needIcons.isEmpty()) {
+                    applyMarkerDiff(call, diff, Collections.emptyMap());
+                    return;
+                }
+
+                runInBackground(iconExecutor, "setMarkers", () -> {
+                    Map<MarkerSpec, BitmapDescriptor> icons = new IdentityHashMap<>();
+                    for (MarkerSpec spec : needIcons) {
+                        try {
+                            icons.put(spec, createMarkerIcon(spec));
+                        } catch (JSONException | IllegalArgumentException e) {
+                            call.reject("Invalid marker " + spec.id + ": " + e.getMessage());
+                            return;
+                        }
+                    }
+                    runOnUiThread("setMarkers", () -> applyMarkerDiff(call, diff, icons));
+                });
+            });
+        });
+    }
+
+    // Must be called on the UI thread
+    private void applyMarkerDiff(PluginCall call, MarkerDiff diff, Map<MarkerSpec, BitmapDescriptor> icons) {
+        if (googleMap == null) {
+            call.reject("Map not ready");
+            return;
+        }
+
+        int removed = 0;
+        for (String markerId : diff.removed) {
+            Marker marker = markerRegistry.remove(markerId);
+            if (marker != null) {
+                marker.remove();
+                removed++;
+            }
+        }
+
+        int updated = 0;
+        int added = 0;
+        for (MarkerDiff.Update update : diff.updated) {
+            MarkerRegistry.Entry<Marker> entry = markerRegistry.entry(update.markerId);
+            if (entry == null) {
+                // Removed by another call since the diff was computed
+                placeMarker(update.spec, icons.get(update.spec));
+                added++;
+                continue;
+            }
+
+            Marker marker = entry.marker;
+            MarkerSpec spec = update.spec;
+            if (update.position) {
+                markerAnimator.cancel(entry.id);
+                marker.setPosition(new LatLng(spec.latitude, spec.longitude));
+            }
+            if (update.icon) {
+                BitmapDescriptor icon = icons.get(spec);
+                marker.setIcon(icon != null ? icon : BitmapDescriptorFactory.defaultMarker());
+            }
+            if (update.title) {
+                marker.setTitle(spec.title);
+            }
+            if (update.draggable) {
+                marker.setDraggable(spec.draggable);
+            }
+            // Restack only when the z-index option, the kind of icon or the user-marker status changed
+            float zIndex = entry.zIndex;
+            if (update.zIndex
+                    || entry.spec.isCustom() != spec.isCustom()
+                    || isUserMarker(entry.title()) != isUserMarker(spec.title)) {
+                zIndex = resolveZIndex(spec);
+                marker.setZIndex(zIndex);
+            }
+            markerRegistry.add(entry.id, marker, spec, zIndex, !isUserMarker(spec.title));
+            updated++;
+        }
+
+        for (MarkerSpec spec : diff.added) {
+            if (placeMarker(spec, icons.get(spec)) != null) {
+                added++;
+            }
+        }
+
+        onMarkersChanged();
+
+        JSObject result = new JSObject();
+        result.put("added", added);
+        result.put("removed", removed);
+        result.put("updated", updated);
+        result.put("unchanged", diff.unchanged);
+        call.resolve(result);
+    }
+
+    // Runs on iconExecutor — never call this from the UI thread
+    private BitmapDescriptor createMarkerIcon(MarkerSpec spec) throws JSONException {
+        long start = performance.start();
+        try {
+            return buildMarkerIcon(spec);
+        } finally {
+            performance.stop(PerformanceMonitor.Phase.BITMAP, start);
+        }
+    }
+
+    private BitmapDescriptor buildMarkerIcon(MarkerSpec spec) throws JSONException {
+        if (spec.hasImageIcon()) {
+            // Handle base64 image — scale to a fixed dp target so the marker
+            // appears at the same physical size on phones and tablets
+            int targetPx = getScaledPixels(getBridge(), 36); // 36dp on every screen
+            Bitmap bitmap = MarkerIconDecoder.decodeDataUri(spec.iconImage, targetPx);
+            if (bitmap == null) {
+                throw new IllegalArgumentException("iconImage could not be decoded");
+            }
+            return BitmapDescriptorFactory.fromBitmap(bitmap);
+        }
+
+        if (spec.colors == null) {
+            throw new JSONException("colors is required when iconImage is not set");
+        }
+
+        // Markers sharing colors and glyph reuse one descriptor instead of drawing and uploading a new bitmap
+        float density = getContext().getResources().getDisplayMetrics().density;
+        MarkerStyleKey key = new MarkerStyleKey(spec.colors[0], spec.colors[1], spec.colors[2], spec.mdiIcon, density);
+        BitmapDescriptor descriptor = markerIconCache.get(key);
+        if (descriptor == null) {
+            Bitmap bitmap = generateMarkerBitmap(spec.colors[0], spec.colors[1], spec.colors[2], spec.mdiIcon);
+            descriptor = BitmapDescriptorFactory.fromBitmap(bitmap);
+            markerIconCache.put(key, descriptor, bitmap.getByteCount());
+        }
+        return descriptor;
+    }
+
+    // The message of a thrown JSONException names the offending index
+    private List<MarkerSpec> parseMarkerSpecs(JSArray markersArray) throws JSONException {
+        long start = performance.start();
+        List<MarkerSpec> specs = new ArrayList<>(markersArray.length());
+        for (int i = 0; i < markersArray.length(); i++) {
+            try {
+                specs.add(MarkerSpec.fromJSON(markersArray.getJSONObject(i)));
+            } catch (JSONException e) {
+                throw new JSONException("Invalid marker at index " + i + ": " + e.getMessage());
+            }
+        }
+        performance.stop(PerformanceMonitor.Phase.DECODE, start);
+        return specs;
+    }
+
+    /** Flattens [{xKey, yKey}, ...] into {x0, y0, x1, y1, ...}. */
+    private double[] parsePointArray(JSONArray array, String xKey, String yKey) throws JSONException {
+        if (array == null) {
+            throw new JSONException("points is required");
+        }
+        long start = performance.start();
+        double[] values = new double[array.length() * 2];
+        for (int i = 0; i < array.length(); i++) {
+            try {
+                JSONObject point = array.getJSONObject(i);
+                values[i * 2] = point.getDouble(xKey);
+                values[i * 2 + 1] = point.getDouble(yKey);
+            } catch (JSONException e) {
+                throw new JSONException("Invalid point at index " + i + ": " + e.getMessage());
+            }
+        }
+        performance.stop(PerformanceMonitor.Phase.DECODE, start);
+        return values;
+    }
+
+    /**
+     * Device-pixel origin of the map's projection relative to the WebView. A projected point p
+     * is at ((origin + p) / density) CSS pixels; this is how onMarkerClick computes screenX/Y.
+     * Must be called on the UI thread.
+     */
+    private int[] webViewOrigin() {
+        int[] origin = new int[2];
+        mapContainer.getLocationOnScreen(origin);
+        origin[0] += mapX;
+        origin[1] += mapY;
+        return origin;
+    }
+
+    // Must be called on the UI thread
+    private float resolveZIndex(MarkerSpec spec) {
+        if (spec.zIndex != null) {
+            return spec.zIndex;
+        }
+        if (!spec.isCustom()) {
+            // Default pins keep the Google Maps default
+            return 0f;
+        }
+        if (isUserMarker(spec.title)) {
+            return USER_MARKER_Z_INDEX;
+        }
+        // Stack custom markers above every existing one
+        return markerRegistry.nextZIndex();
+    }
+
+    private static boolean isUserMarker(String title) {
+        return "userMarker".equals(title);
+    }
+
+    // Must be called on the UI thread. A null icon produces the default Google Maps pin.
+    private Marker placeMarker(MarkerSpec spec, BitmapDescriptor icon) {
+        // A client key identifies one marker — adding it again replaces the old one
+        if (spec.id != null) {
+            MarkerRegistry.Entry<Marker> existing = markerRegistry.entryByKey(spec.id);
+            if (existing != null) {
+                markerRegistry.remove(existing.id);
+                existing.marker.remove();
+            }
+        }
+
+        float zIndex = resolveZIndex(spec);
+        MarkerOptions options = new MarkerOptions()
+                .position(new LatLng(spec.latitude, spec.longitude))
+                .title(spec.title)
+                .draggable(spec.draggable)
+                .zIndex(zIndex);
+        if (icon != null) {
+            options.icon(icon);
+        }
+
+        Marker marker = googleMap.addMarker(options);
+        if (marker != null) {
+            markerRegistry.add(marker.getId(), marker, spec, zIndex, !isUserMarker(spec.title));
+        }
+        return marker;
+    }
+
+    /**
+     * updates: [{id, lat, lng, durationMs}] where id is a marker ID or the client id given in
+     * setMarkers. Each marker moves to its target at a constant speed over durationMs (default
+     * 1000). A marker that is still moving heads for the new target from where it is now.
+     * Resolves with {animated, missing} listing the ids that matched no marker.
+     */
+    @PluginMethod
+    public void animateMarkers(PluginCall call) {
+        JSArray updatesArray = call.getArray("updates");
+        if (updatesArray == null) {
+            call.reject("updates is required");
+            return;
+        }
+
+        int count = updatesArray.length();
+        String[] ids = new String[count];
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        long[] durations = new long[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                JSONObject update = updatesArray.getJSONObject(i);
+                ids[i] = update.getString("id");
+                latitudes[i] = update.getDouble("lat");
+                longitudes[i] = update.getDouble("lng");
+                durations[i] = update.optLong("durationMs", 1000);
+                if (latitudes[i] < -90 || latitudes[i] > 90) {
+                    throw new JSONException("lat out of range");
+                }
+            }
+        } catch (JSONException e) {
+            call.reject("Invalid update: " + e.getMessage());
+            return;
+        }
+
+        runOnUiThread("animateMarkers", () -> {
+            if (googleMap == null) {
+                call.reject("Map not ready");
+                return;
+            }
+
+            long now = System.nanoTime();
+            int animated = 0;
+            JSArray missing = new JSArray();
+            for (int i = 0; i < count; i++) {
+                MarkerRegistry.Entry<Marker> entry = markerRegistry.entry(ids[i]);
+                if (entry == null) {
+                    entry = markerRegistry.entryByKey(ids[i]);
+                }
+                if (entry == null) {
+                    missing.put(ids[i]);
+                    continue;
+                }
+                LatLng position = entry.marker.getPosition();
+                markerAnimator.animate(entry.id, entry.marker, position.latitude, position.longitude,
+                        latitudes[i], longitudes[i], durations[i], now);
+                // The registry holds the target so clustering and setMarkers see where the marker is going
+                markerRegistry.add(entry.id, entry.marker, entry.spec.withPosition(latitudes[i], longitudes[i]),
+                        entry.zIndex, entry.stacked);
+                animated++;
+            }
+
+            if (animated > 0) {
+                onMarkersMoved();
+                if (!markerAnimationScheduled) {
+                    markerAnimationScheduled = true;
+                    Choreographer.getInstance().postFrameCallback(markerAnimationCallback);
+                }
+            }
+
+            JSObject result = new JSObject();
+            result.put("animated", animated);
+            result.put("missing", missing);
+            call.resolve(result);
+        });
+    }
+
+    /**
+     * ids: marker IDs or client ids. Resolves with {handles} in the same order, 0 for ids
+     * that match no marker. Handles identify markers in updateMarkerPositions.
+     */
+    @PluginMethod
+    public void getMarkerHandles(PluginCall call) {
+        JSArray idsArray = call.getArray("ids");
+        if (idsArray == null) {
+            call.reject("ids is required");
+            return;
+        }
+
+        List<String> ids = new ArrayList<>(idsArray.length());
+        try {
+            for (int i = 0; i < idsArray.length(); i++) {
+                ids.add(idsArray.getString(i));
+            }
+        } catch (JSONException e) {
+            call.reject("ids must be an array of strings");
+            return;
+        }
+
+        runOnUiThread("getMarkerHandles", () -> {
+            JSArray handles = new JSArray();
+            for (String id : ids) {
+                MarkerRegistry.Entry<Marker> entry = markerRegistry.entry(id);
+                if (entry == null) {
+                    entry = markerRegistry.entryByKey(id);
+                }
+                handles.put(entry != null ? entry.handle : 0);
+            }
+
+            JSObject result = new JSObject();
+            result.put("handles", handles);
+            call.resolve(result);
+        });
+    }
+
+    /**
+     * data: base64 of the packed format described in PackedPositions — n (lat, lng) Float64
+     * pairs then n Int32 marker handles, little-endian. Decoded on the calling thread and
+     * applied in one UI-thread pass. With durationMs the markers are animated as in
+     * animateMarkers, otherwise they jump. Resolves with {updated, missing}.
+     */
+    @PluginMethod
+    public void updateMarkerPositions(PluginCall call) {
+        String data = call.getString("data");
+        if (data == null) {
+            call.reject("data is required");
+            return;
+        }
+        Integer durationMs = call.getInt("durationMs");
+
+        PackedPositions positions;
+        long decodeStart = performance.start();
+        try {
+            positions = PackedPositions.decode(Base64.decode(data, Base64.DEFAULT));
+        } catch (IllegalArgumentException e) {
+            call.reject("Invalid packed positions: " + e.getMessage());
+            return;
+        } finally {
+            performance.stop(PerformanceMonitor.Phase.DECODE, decodeStart);
+        }
+
+        runOnUiThread("updateMarkerPositions", () -> {
+            if (googleMap == null) {
+                call.reject("Map not ready");
+                return;
+            }
+
+            long now = System.nanoTime();
+            int updated = 0;
+            int missing = 0;
+            for (int i = 0; i < positions.count; i++) {
+                MarkerRegistry.Entry<Marker> entry = markerRegistry.entryByHandle(positions.handles[i]);
+                if (entry == null) {
+                    missing++;
+                    continue;
+                }
+                double lat = positions.coordinates[2 * i];
+                double lng = positions.coordinates[2 * i + 1];
+                if (durationMs != null && durationMs > 0) {
+                    LatLng position = entry.marker.getPosition();
+                    markerAnimator.animate(entry.id, entry.marker, position.latitude, position.longitude,
+                            lat, lng, durationMs, now);
+                } else {
+                    markerAnimator.cancel(entry.id);
+                    entry.marker.setPosition(new LatLng(lat, lng));
+                }
+                markerRegistry.add(entry.id, entry.marker, entry.spec.withPosition(lat, lng),
+                        entry.zIndex, entry.stacked);
+                updated++;
+            }
+
+            if (updated > 0) {
+                onMarkersMoved();
+                if (markerAnimator.size() > 0 && !markerAnimationScheduled) {
+                    markerAnimationScheduled = true;
+                    Choreographer.getInstance().postFrameCallback(markerAnimationCallback);
+                }
+            }
+
+            JSObject result = new JSObject();
+            result.put("updated", updated);
+            result.put("missing", missing);
+            call.resolve(result);
+        });
+    }
+
+    // 0 when the marker couldn't be added
+    private int markerHandle(Marker marker) {
+        MarkerRegistry.Entry<Marker> entry = marker != null ? markerRegistry.entry(marker.getId()) : null;
+        return entry != null ? entry.handle : 0;
+    }
+
+    // Frame callback: moves every animated marker, then reposts while any are still moving
+    private void stepMarkerAnimations(long frameTimeNanos) {
+        markerAnimationScheduled = false;
+        if (googleMap == null) {
+            markerAnimator.clear();
+            return;
+        }
+        if (markerAnimator.step(frameTimeNanos, markerAnimationSink) > 0) {
+            markerAnimationScheduled = true;
+            Choreographer.getInstance().postFrameCallback(markerAnimationCallback);
+        }
+    }
+
+    // Must be called on the UI thread
+    private void stopMarkerAnimations() {
+        Choreographer.getInstance().removeFrameCallback(markerAnimationCallback);
+        markerAnimationScheduled = false;
+        markerAnimator.clear();
+    }
+
+    @PluginMethod
+    public void configureMarkerCache(PluginCall call) {
+        Long maxBytes = call.getLong("maxBytes");
+        if (maxBytes == null || maxBytes < 0) {
+            call.reject("maxBytes must be a non-negative number");
+            return;
+        }
+
+        markerIconCache.setMaxWeight(maxBytes);
+        call.resolve(markerCacheStats());
+    }
+
+    @PluginMethod
+    public void getMarkerCacheStats(PluginCall call) {
+        call.resolve(markerCacheStats());
+    }
+
+    private JSObject markerCacheStats() {
+        JSObject result = new JSObject();
+        result.put("hits", markerIconCache.hitCount());
+        result.put("misses", markerIconCache.missCount());
+        result.put("evictions", markerIconCache.evictionCount());
+        result.put("entries", markerIconCache.size());
+        result.put("bytes", markerIconCache.weight());
+        result.put("maxBytes", markerIconCache.maxWeight());
+        return result;
+    }
+
+    @PluginMethod
+    public void moveCamera(PluginCall call) {
+        runOnUiThread("moveCamera", () -> {
+            if (googleMap == null) {
+                call.reject("Map not ready");
+                return;
+            }
+
+            double lat = call.getDouble("latitude", 0.0);
+            double lng = call.getDouble("longitude", 0.0);
+            float zoom = call.getFloat("zoom", 14.0F);
+
+            LatLng position = new LatLng(lat, lng);
+            googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(position, zoom));
+            call.resolve();
+        });
+    }
+
+    @PluginMethod
+    public void setZoomLimits(PluginCall call) {
+        runOnUiThread("setZoomLimits", () -> {
+            if (googleMap == null) {
+                call.reject("Map not ready");
+                return;
+            }
+
+            Float minZoom = call.getFloat("minZoom");
+            Float maxZoom = call.getFloat("maxZoom");
+
+            try {
+                UiSettings uiSettings = googleMap.getUiSettings();
+                if (minZoom != null) {
+                    googleMap.setMinZoomPreference(minZoom);
+                }
+                if (maxZoom != null) {
+                    googleMap.setMaxZoomPreference(maxZoom);
+                }
+                call.resolve();
+            } catch (Exception e) {
+                call.reject("Failed to set zoom limits: " + e.getMessage());
+            }
+        });
+    }
+
+    @PluginMethod
+    public void enableClustering(PluginCall call) {
+        int gridSize = call.getInt("gridSize", 64);
+        int maxZoom = call.getInt("maxZoom", 16);
+        int minClusterSize = call.getInt("minClusterSize", 2);
+        if (maxZoom < 0 || maxZoom > ClusterIndex.MAX_ZOOM) {
+            call.reject("maxZoom must be between 0 and " + ClusterIndex.MAX_ZOOM);
+            return;
+        }
+        String[] colors = clusterColors;
+        JSArray colorArray = call.getArray("colors");
+        if (colorArray != null) {
+            try {
+                colors = new String[] { colorArray.getString(0), colorArray.getString(1), colorArray.getString(2) };
+            } catch (JSONException e) {
+                call.reject("Invalid color array");
+                return;
+            }
+        }
+
+        String[] clusterStyle = colors;
+        runOnUiThread("enableClustering", () -> {
+            if (googleMap == null) {
+                call.reject("Map not ready");
+                return;
+            }
+
+            clusteringEnabled = true;
+            clusterGridSize = gridSize;
+            clusterMaxZoom = maxZoom;
+            clusterMinSize = Math.max(2, minClusterSize);
+            clusterColors = clusterStyle;
+            clusterGeneration++;
+            clusterIndex = null;
+            clusterIndexModCount = -1;
+            refreshClusters();
+            call.resolve();
+        });
+    }
+
+    @PluginMethod
+    public void disableClustering(PluginCall call) {
+        runOnUiThread("disableClustering", () -> {
+            clusteringEnabled = false;
+            clusterGeneration++;
+            cancelDeferredClusterRefresh();
+            removeClusterMarkers();
+            for (String markerId : hiddenByClusters) {
+                Marker marker = markerRegistry.get(markerId);
+                if (marker != null) {
+                    marker.setVisible(true);
+                }
+            }
+            hiddenByClusters = new HashSet<>();
+            clusterIndex = null;
+            call.resolve();
+        });
+    }
+
+    // Must be called on the UI thread after any change to markerRegistry
+    private void onMarkersChanged() {
+        if (clusteringEnabled) {
+            refreshClusters();
+        }
+    }
+
+    // Must be called on the UI thread after markers only moved. Live tracking moves markers
+    // many times a second, so the index is left stale and rebuilt at most once per
+    // CLUSTER_MOVE_REFRESH_MS, or sooner if the camera goes idle first.
+    private void onMarkersMoved() {
+        if (clusteringEnabled && !clusterRefreshPending) {
+            clusterRefreshPending = true;
+            mainHandler.postDelayed(deferredClusterRefresh, CLUSTER_MOVE_REFRESH_MS);
+        }
+    }
+
+    private void cancelDeferredClusterRefresh() {
+        mainHandler.removeCallbacks(deferredClusterRefresh);
+        clusterRefreshPending = false;
+    }
+
+    // Must be called on the UI thread. Rebuilds the index in the background when the
+    // markers changed since the last build, otherwise re-renders for the current camera.
+    private void refreshClusters() {
+        cancelDeferredClusterRefresh();
+        if (!clusteringEnabled || googleMap == null) {
+            return;
+        }
+        if (clusterIndex != null && clusterIndexModCount == markerRegistry.modCount()) {
+            renderClusters();
+            return;
+        }
+        if (clusterBuildInFlight) {
+            // The running build re-checks modCount when it finishes
+            return;
+        }
+
+        // Snapshot positions into flat arrays here; building the pyramid happens off the UI thread
+        int modCount = markerRegistry.modCount();
+        int size = markerRegistry.size();
+        String[] ids = new String[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        int count = 0;
+        for (MarkerRegistry.Entry<Marker> entry : markerRegistry.entries()) {
+            if (isUserMarker(entry.title())) {
+                continue;
+            }
+            ids[count] = entry.id;
+            latitudes[count] = entry.spec.latitude;
+            longitudes[count] = entry.spec.longitude;
+            count++;
+        }
+
+        int itemCount = count;
+        int generation = clusterGeneration;
+        int gridSize = clusterGridSize;
+        int maxZoom = clusterMaxZoom;
+        clusterBuildInFlight = true;
+        runInBackground(indexExecutor, "refreshClusters", () -> {
+            ClusterIndex index = new ClusterIndex(latitudes, longitudes, itemCount, gridSize, 0, maxZoom);
+            runOnUiThread("refreshClusters", () -> {
+                clusterBuildInFlight = false;
+                if (generation == clusterGeneration) {
+                    clusterIndex = index;
+                    clusterItemIds = ids;
+                    clusterIndexModCount = modCount;
+                }
+                // Renders, or starts another build if markers changed in the meantime
+                refreshClusters();
+            });
+        });
+    }
+
+    // Must be called on the UI thread. Diffs against the live cluster markers by cluster id:
+    // only new clusters get a marker, only vanished ones are removed, and kept ones are moved
+    // or re-iconed only when their centroid or count bucket changed.
+    private void renderClusters() {
+        int zoom = (int) googleMap.getCameraPosition().zoom;
+        // Pad the query by half a viewport on each side so a short pan doesn't
+        // reveal unclustered markers before the next idle
+        double[] box = paddedVisibleBounds(0.5);
+        List<ClusterIndex.Cluster> clusters = clusterIndex.clustersInView(zoom, box[0], box[1], box[2], box[3]);
+
+        if (clusterMarkersGeneration != clusterGeneration) {
+            // Grid size or colors changed: the same id may now mean a different cell or icon
+            removeClusterMarkers();
+            clusterMarkersGeneration = clusterGeneration;
+        }
+
+        Map<String, Marker> rendered = new HashMap<>();
+        Set<String> hidden = new HashSet<>();
+        if (clusters != null) {
+            float density = getContext().getResources().getDisplayMetrics().density;
+            float zIndex = Float.NaN;
+            for (ClusterIndex.Cluster cluster : clusters) {
+                if (cluster.count < clusterMinSize) {
+                    continue;
+                }
+                for (int index : cluster.memberIndices()) {
+                    hidden.add(clusterItemIds[index]);
+                }
+                String clusterId = cluster.id();
+                Marker clusterMarker = clusterMarkersById.remove(clusterId);
+                if (clusterMarker == null) {
+                    if (Float.isNaN(zIndex)) {
+                        zIndex = markerRegistry.nextZIndex();
+                    }
+                    clusterMarker = googleMap.addMarker(new MarkerOptions()
+                            .position(new LatLng(cluster.latitude(), cluster.longitude()))
+                            .icon(clusterIcon(cluster.count, density))
+                            .zIndex(zIndex)
+                    );
+                    if (clusterMarker == null) {
+                        continue;
+                    }
+                } else {
+                    ClusterIndex.Cluster previous = clusterMarkers.get(clusterMarker.getId());
+                    if (previous.latitude() != cluster.latitude() || previous.longitude() != cluster.longitude()) {
+                        clusterMarker.setPosition(new LatLng(cluster.latitude(), cluster.longitude()));
+                    }
+                    if (!clusterLabel(previous.count).equals(clusterLabel(cluster.count))) {
+                        clusterMarker.setIcon(clusterIcon(cluster.count, density));
+                    }
+                }
+                rendered.put(clusterId, clusterMarker);
+                clusterMarkers.put(clusterMarker.getId(), cluster);
+            }
+        }
+        // Whatever is left scrolled out of view or merged into another cluster
+        removeClusterMarkers();
+        clusterMarkersById = rendered;
+
+        // Only touch markers whose visibility actually changes
+        for (String markerId : hiddenByClusters) {
+            if (!hidden.contains(markerId)) {
+                Marker marker = markerRegistry.get(markerId);
+                if (marker != null) {
+                    marker.setVisible(true);
+                }
+            }
+        }
+        for (String markerId : hidden) {
+            if (!hiddenByClusters.contains(markerId)) {
+                Marker marker = markerRegistry.get(markerId);
+                if (marker != null) {
+                    marker.setVisible(false);
+                }
+            }
+        }
+        hiddenByClusters = hidden;
+    }
+
+    private void removeClusterMarkers() {
+        for (Marker marker : clusterMarkersById.values()) {
+            clusterMarkers.remove(marker.getId());
+            marker.remove();
+        }
+        clusterMarkersById.clear();
+    }
+
+    private void resetClusterState() {
+        clusterGeneration++;
+        cancelDeferredClusterRefresh();
+        clusterIndex = null;
+        clusterIndexModCount = -1;
+        clusterMarkersById = new HashMap<>();
+        clusterMarkers.clear();
+        hiddenByClusters = new HashSet<>();
+    }
+
+    private void notifyClusterClick(ClusterIndex.Cluster cluster) {
+        JSArray markerIds = new JSArray();
+        for (int index : cluster.memberIndices()) {
+            markerIds.put(clusterItemIds[index]);
+        }
+
+        JSObject bounds = new JSObject();
+        bounds.put("north", cluster.north);
+        bounds.put("south", cluster.south);
+        bounds.put("east", cluster.east);
+        bounds.put("west", cluster.west);
+
+        JSObject data = new JSObject();
+        data.put("mapId", mapId);
+        data.put("clusterId", cluster.id());
+        data.put("count", cluster.count);
+        data.put("latitude", cluster.latitude());
+        data.put("longitude", cluster.longitude());
+        data.put("bounds", bounds);
+        data.put("markerIds", markerIds);
+        notifyListeners("onClusterClick", data);
+    }
+
+    // Cluster counts are bucketed ("10+", "50+", ...) so only a handful of icons are ever drawn
+    private BitmapDescriptor clusterIcon(int count, float density) {
+        String label = clusterLabel(count);
+        MarkerStyleKey key = new MarkerStyleKey(clusterColors[0], clusterColors[1], clusterColors[2], "cluster:" + label, density);
+        BitmapDescriptor descriptor = markerIconCache.get(key);
+        if (descriptor == null) {
+            float textSize = label.length() <= 2 ? 48 : label.length() <= 4 ? 36 : 28;
+            Bitmap bitmap = generateMarkerBitmap(clusterColors[0], clusterColors[1], clusterColors[2],
+                    label, Typeface.DEFAULT_BOLD, textSize);
+            descriptor = BitmapDescriptorFactory.fromBitmap(bitmap);
+            markerIconCache.put(key, descriptor, bitmap.getByteCount());
+        }
+        return descriptor;
+    }
+
+    private static String clusterLabel(int count) {
+        if (count < 10) {
+            return String.valueOf(count);
+        }
+        int[] buckets = { 10000, 5000, 1000, 500, 200, 100, 50, 20, 10 };
+        for (int bucket : buckets) {
+            if (count >= bucket) {
+                return bucket + "+";
+            }
+        }
+        return String.valueOf(count);
+    }
+
+    @PluginMethod
+    public void setVirtualMarkers(PluginCall call) {
+        JSArray markersArray = call.getArray("markers");
+        if (markersArray == null) {
+            call.reject("markers is required");
+            return;
+        }
+        if (googleMap == null) {
+            call.reject("Map not ready");
+            return;
+        }
+        double margin = call.getDouble("margin", 0.5);
+        int maxVisible = call.getInt("maxVisible", 500);
+        int batchSize = call.getInt("batchSize", 50);
+
+        // Parsing and building the quadtree for tens of thousands of points stays off the UI thread
+        runInBackground(indexExecutor, "setVirtualMarkers", () -> {
+            List<MarkerSpec> specs;
+            try {
+                specs = parseMarkerSpecs(markersArray);
+            } catch (JSONException e) {
+                call.reject(e.getMessage());
+                return;
+            }
+            VirtualMarkerIndex index = new VirtualMarkerIndex(specs);
+
+            runOnUiThread("setVirtualMarkers", () -> {
+                if (googleMap == null) {
+                    call.reject("Map not ready");
+                    return;
+                }
+                removeVirtualMarkers();
+                virtualMarkers = index;
+                virtualMarkerObjects = new Marker[index.size()];
+                virtualMargin = Math.max(0, margin);
+                virtualMaxVisible = Math.max(1, maxVisible);
+                virtualBatchSize = Math.max(1, batchSize);
+                refreshVirtualMarkers();
+
+                JSObject result = new JSObject();
+                result.put("count", index.size());
+                call.resolve(result);
+            });
+        });
+    }
+
+    @PluginMethod
+    public void clearVirtualMarkers(PluginCall call) {
+        runOnUiThread("clearVirtualMarkers", () -> {
+            removeVirtualMarkers();
+            call.resolve();
+        });
+    }
+
+    // Must be called on the UI thread. Works out which virtual markers should exist for the
+    // current camera, builds the icons of the new ones in the background and then applies
+    // the change a batch per frame. A newer refresh supersedes one still in progress.
+    private void refreshVirtualMarkers() {
+        if (virtualMarkers == null || googleMap == null) {
+            return;
+        }
+        double[] box = paddedVisibleBounds(virtualMargin);
+        VirtualMarkerIndex.Plan plan = virtualMarkers.plan(box[0], box[1], box[2], box[3], virtualMaxVisible);
+        int generation = ++virtualGeneration;
+        Choreographer.getInstance().removeFrameCallback(virtualFrameCallback);
+        pendingVirtualPlan = null;
+        if (plan.isEmpty()) {
+            return;
+        }
+
+        VirtualMarkerIndex index = virtualMarkers;
+        runInBackground(iconExecutor, "refreshVirtualMarkers", () -> {
+            BitmapDescriptor[] icons = new BitmapDescriptor[plan.added.length];
+            for (int i = 0; i < plan.added.length; i++) {
+                MarkerSpec spec = index.spec(plan.added[i]);
+                if (!spec.isCustom()) {
+                    continue;
+                }
+                try {
+                    icons[i] = createMarkerIcon(spec);
+                } catch (JSONException | IllegalArgumentException e) {
+                    Log.e(MAPS_TAG, "Invalid virtual marker icon: " + e.getMessage());
+                }
+            }
+
+            runOnUiThread("refreshVirtualMarkers", () -> {
+                if (generation != virtualGeneration || index != virtualMarkers) {
+                    return;
+                }
+                pendingVirtualPlan = plan;
+                pendingVirtualIcons = icons;
+                pendingVirtualCursor = 0;
+                Choreographer.getInstance().postFrameCallback(virtualFrameCallback);
+            });
+        });
+    }
+
+    // Frame callback: removals first, then additions, at most virtualBatchSize of either per frame
+    private void applyVirtualBatch(long frameTimeNanos) {
+        VirtualMarkerIndex.Plan plan = pendingVirtualPlan;
+        if (plan == null || googleMap == null || virtualMarkers == null) {
+            return;
+        }
+
+        int total = plan.removed.length + plan.added.length;
+        int end = Math.min(total, pendingVirtualCursor + virtualBatchSize);
+        for (int step = pendingVirtualCursor; step < end; step++) {
+            if (step < plan.removed.length) {
+                int index = plan.removed[step];
+                if (virtualMarkers.isMaterialized(index)) {
+                    virtualMarkerObjects[index].remove();
+                    virtualMarkerObjects[index] = null;
+                    virtualMarkers.setMaterialized(index, false);
+                }
+                continue;
+            }
+
+            int slot = step - plan.removed.length;
+            int index = plan.added[slot];
+            if (virtualMarkers.isMaterialized(index)) {
+                continue;
+            }
+            MarkerSpec spec = virtualMarkers.spec(index);
+            MarkerOptions options = new MarkerOptions()
+                    .position(new LatLng(spec.latitude, spec.longitude))
+                    .title(spec.title)
+                    .draggable(spec.draggable)
+                    .zIndex(spec.zIndex != null ? spec.zIndex : 0f);
+            if (pendingVirtualIcons[slot] != null) {
+                options.icon(pendingVirtualIcons[slot]);
+            }
+            Marker marker = googleMap.addMarker(options);
+            if (marker != null) {
+                virtualMarkerObjects[index] = marker;
+                virtualMarkers.setMaterialized(index, true);
+            }
+        }
+
+        pendingVirtualCursor = end;
+        if (end < total) {
+            Choreographer.getInstance().postFrameCallback(virtualFrameCallback);
+        } else {
+            pendingVirtualPlan = null;
+            pendingVirtualIcons = null;
+        }
+    }
+
+    // Must be called on the UI thread
+    private void removeVirtualMarkers() {
+        for (Marker marker : virtualMarkerObjects) {
+            if (marker != null) {
+                marker.remove();
+            }
+        }
+        resetVirtualMarkers();
+    }
+
+    // Forgets the virtual layer and any batch in progress without touching the map
+    private void resetVirtualMarkers() {
+        virtualGeneration++;
+        Choreographer.getInstance().removeFrameCallback(virtualFrameCallback);
+        pendingVirtualPlan = null;
+        pendingVirtualIcons = null;
+        virtualMarkers = null;
+        virtualMarkerObjects = new Marker[0];
+    }
+
+    /**
+     * points: [{latitude, longitude}], color (default #000000), width in dp (default 4),
+     * zIndex, geodesic. An existing shape with the same id is replaced.
+     */
+    @PluginMethod
+    public void addPolyline(PluginCall call) {
+        addShape(call, false);
+    }
+
+    /**
+     * points: outer ring, holes: inner rings, strokeColor (default #000000), fillColor
+     * (default transparent), strokeWidth in dp (default 4), zIndex. Rings close themselves.
+     */
+    @PluginMethod
+    public void addPolygon(PluginCall call) {
+        addShape(call, true);
+    }
+
+    private void addShape(PluginCall call, boolean polygon) {
+        String method = polygon ? "addPolygon" : "addPolyline";
+        JSArray pointsArray = call.getArray("points");
+        int minPoints = polygon ? 3 : 2;
+        if (pointsArray == null || pointsArray.length() < minPoints) {
+            call.reject("points needs at least " + minPoints + " coordinates");
+            return;
+        }
+        if (googleMap == null) {
+            call.reject("Map not ready");
+            return;
+        }
+        JSArray holesArray = polygon ? call.getArray("holes") : null;
+        String id = call.getString("id");
+        int strokeColor;
+        int fillColor;
+        try {
+            strokeColor = Color.parseColor(call.getString(polygon ? "strokeColor" : "color", "#000000"));
+            fillColor = Color.parseColor(call.getString("fillColor", "#00000000"));
+        } catch (IllegalArgumentException e) {
+            call.reject("Invalid color: " + e.getMessage());
+            return;
+        }
+        float strokeWidth = call.getFloat(polygon ? "strokeWidth" : "width", 4f)
+                * getContext().getResources().getDisplayMetrics().density;
+        float zIndex = call.getFloat("zIndex", 0f);
+        boolean geodesic = call.getBoolean("geodesic", false);
+
+        // Holes are checked up front; a degenerate ring can't be simplified
+        double[][] holes = new double[holesArray != null ? holesArray.length() : 0][];
+        for (int i = 0; i < holes.length; i++) {
+            try {
+                holes[i] = parsePointArray(holesArray.getJSONArray(i), "latitude", "longitude");
+            } catch (JSONException e) {
+                call.reject("Invalid hole at index " + i + ": " + e.getMessage());
+                return;
+            }
+            if (!hasThreeDistinctPoints(holes[i])) {
+                call.reject("Hole at index " + i + " needs at least 3 distinct coordinates");
+                return;
+            }
+        }
+
+        // Simplifying tens of thousands of vertices stays off the UI thread
+        runInBackground(indexExecutor, method, () -> {
+            Shape shape;
+            try {
+                List<List<List<LatLng>>> holeLevels = null;
+                if (holesArray != null) {
+                    holeLevels = new ArrayList<>();
+                    for (int band = 0; band <= ShapeSimplifier.BAND_ZOOM_LIMITS.length; band++) {
+                        holeLevels.add(new ArrayList<>());
+                    }
+                    for (double[] holeCoordinates : holes) {
+                        List<List<LatLng>> hole = detailLevels(holeCoordinates, true);
+                        for (int band = 0; band < hole.size(); band++) {
+                            holeLevels.get(band).add(hole.get(band));
+                        }
+                    }
+                }
+                double[] coordinates = parsePointArray(pointsArray, "latitude", "longitude");
+                shape = new Shape(coordinates.length / 2, detailLevels(coordinates, polygon), holeLevels);
+            } catch (JSONException e) {
+                call.reject(e.getMessage());
+                return;
+            }
+
+            runOnUiThread(method, () -> {
+                if (googleMap == null) {
+                    call.reject("Map not ready");
+                    return;
+                }
+                String shapeId = id != null ? id : "shape_" + (++shapeCounter);
+                Shape previous = shapes.remove(shapeId);
+                if (previous != null) {
+                    previous.remove();
+                }
+
+                int band = ShapeSimplifier.band(googleMap.getCameraPosition().zoom);
+                shape.band = band;
+                if (polygon) {
+                    PolygonOptions options = new PolygonOptions()
+                            .addAll(shape.outlineLevels.get(band))
+                            .strokeColor(strokeColor)
+                            .fillColor(fillColor)
+                            .strokeWidth(strokeWidth)
+                            .zIndex(zIndex);
+                    if (shape.holeLevels != null) {
+                        for (List<LatLng> hole : shape.holeLevels.get(band)) {
+                            options.addHole(hole);
+                        }
+                    }
+                    shape.polygon = googleMap.addPolygon(options);
+                } else {
+                    shape.polyline = googleMap.addPolyline(new PolylineOptions()
+                            .addAll(shape.outlineLevels.get(band))
+                            .color(strokeColor)
+                            .width(strokeWidth)
+                            .zIndex(zIndex)
+                            .geodesic(geodesic));
+                }
+                shapes.put(shapeId, shape);
+
+                JSArray levels = new JSArray();
+                for (List<LatLng> level : shape.outlineLevels) {
+                    levels.put(level.size());
+                }
+                JSObject result = new JSObject();
+                result.put("shapeId", shapeId);
+                result.put("vertexCount", shape.vertexCount);
+                result.put("levels", levels);
+                call.resolve(result);
+            });
+        });
+    }
+
+    @PluginMethod
+    public void removeShape(PluginCall call) {
+        String shapeId = call.getString("shapeId");
+        if (shapeId == null) {
+            call.reject("shapeId is required");
+            return;
+        }
+        runOnUiThread("removeShape", () -> {
+            Shape shape = shapes.remove(shapeId);
+            if (shape != null) {
+                shape.remove();
+            }
+            JSObject result = new JSObject();
+            result.put("removed", shape != null);
+            call.resolve(result);
+        });
+    }
+
+    // Interleaved lat/lng pairs
+    private static boolean hasThreeDistinctPoints(double[] coordinates) {
+        int count = coordinates.length / 2;
+        int second = -1;
+        for (int i = 1; i < count; i++) {
+            if (coordinates[i * 2] == coordinates[0] && coordinates[i * 2 + 1] == coordinates[1]) {
+                continue;
+            }
+            if (second < 0) {
+                second = i;
+            } else if (coordinates[i * 2] != coordinates[second * 2] || coordinates[i * 2 + 1] != coordinates[second * 2 + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One point list per zoom band from interleaved lat/lng pairs. The lists share their
+     * LatLng objects. Rings are closed first if needed.
+     */
+    private static List<List<LatLng>> detailLevels(double[] coordinates, boolean closed) {
+        int count = coordinates.length / 2;
+        boolean addClosing = closed && (coordinates[0] != coordinates[count * 2 - 2]
+                || coordinates[1] != coordinates[count * 2 - 1]);
+        int total = addClosing ? count + 1 : count;
+        double[] latitudes = new double[total];
+        double[] longitudes = new double[total];
+        LatLng[] points = new LatLng[total];
+        for (int i = 0; i < total; i++) {
+            int source = i % count;
+            latitudes[i] = coordinates[source * 2];
+            longitudes[i] = coordinates[source * 2 + 1];
+            points[i] = i < count ? new LatLng(latitudes[i], longitudes[i]) : points[0];
+        }
+
+        ShapeSimplifier simplifier = new ShapeSimplifier(latitudes, longitudes, total, closed, 1.0);
+        List<List<LatLng>> levels = new ArrayList<>(simplifier.bandCount());
+        for (int band = 0; band < simplifier.bandCount(); band++) {
+            int[] kept = simplifier.level(band);
+            List<LatLng> level = new ArrayList<>(kept.length);
+            for (int index : kept) {
+                level.add(points[index]);
+            }
+            levels.add(level);
+        }
+        return levels;
+    }
+
+    // Must be called on the UI thread. Swaps each shape to the level of detail of the current zoom
+    private void updateShapeDetail() {
+        if (shapes.isEmpty() || googleMap == null) {
+            return;
+        }
+        int band = ShapeSimplifier.band(googleMap.getCameraPosition().zoom);
+        for (Shape shape : shapes.values()) {
+            if (shape.band == band) {
+                continue;
+            }
+            shape.band = band;
+            if (shape.polygon != null) {
+                shape.polygon.setPoints(shape.outlineLevels.get(band));
+                if (shape.holeLevels != null) {
+                    shape.polygon.setHoles(shape.holeLevels.get(band));
+                }
+            } else if (shape.polyline != null) {
+                shape.polyline.setPoints(shape.outlineLevels.get(band));
+            }
+        }
+    }
+
+    /**
+     * points: [{latitude, longitude, weight?, id?}], radius in dp (default 20), gradient:
+     * {colors, startPoints}, opacity (default 0.7), maxIntensity (estimated per zoom by
+     * default), zIndex. Points with an id can later be replaced or removed by updateHeatmap.
+     */
+    @PluginMethod
+    public void addHeatmap(PluginCall call) {
+        JSArray pointsArray = call.getArray("points");
+        if (pointsArray == null) {
+            call.reject("points is required");
+            return;
+        }
+        if (googleMap == null) {
+            call.reject("Map not ready");
+            return;
+        }
+        int[] colorMap;
+        try {
+            colorMap = heatmapColorMap(call.getObject("gradient"), call.getDouble("opacity", 0.7));
+        } catch (JSONException | IllegalArgumentException e) {
+            call.reject("Invalid gradient: " + e.getMessage());
+            return;
+        }
+        String id = call.getString("id");
+        int radius = call.getInt("radius", 20);
+        double maxIntensity = call.getDouble("maxIntensity", 0.0);
+        float zIndex = call.getFloat("zIndex", 0f);
+
+        // Indexing the points and estimating the intensity range stays off the UI thread;
+        // the tiles themselves are drawn on the Maps SDK's tile threads
+        runInBackground(indexExecutor, "addHeatmap", () -> {
+            HeatmapRenderer renderer;
+            try {
+                renderer = new HeatmapRenderer(parseHeatmapPoints(pointsArray), radius, colorMap, maxIntensity);
+            } catch (JSONException e) {
+                call.reject(e.getMessage());
+                return;
+            }
+            Heatmap heatmap = new Heatmap(new HeatmapTileProvider(renderer, HEATMAP_TILE_CACHE_BYTES));
+
+            runOnUiThread("addHeatmap", () -> {
+                if (googleMap == null) {
+                    call.reject("Map not ready");
+                    return;
+                }
+                String heatmapId = id != null ? id : "heatmap_" + (++heatmapCounter);
+                Heatmap previous = heatmaps.remove(heatmapId);
+                if (previous != null) {
+                    previous.overlay.remove();
+                }
+                heatmap.overlay = googleMap.addTileOverlay(new TileOverlayOptions()
+                        .tileProvider(heatmap.provider)
+                        .zIndex(zIndex));
+                heatmaps.put(heatmapId, heatmap);
+
+                JSObject result = new JSObject();
+                result.put("heatmapId", heatmapId);
+                result.put("pointCount", renderer.pointCount());
+                call.resolve(result);
+            });
+        });
+    }
+
+    /**
+     * add: points as in addHeatmap, replacing points with the same id; remove: point ids.
+     * Only the tiles around the changed points are drawn again.
+     */
+    @PluginMethod
+    public void updateHeatmap(PluginCall call) {
+        String heatmapId = call.getString("heatmapId");
+        if (heatmapId == null) {
+            call.reject("heatmapId is required");
+            return;
+        }
+        JSArray addArray = call.getArray("add", new JSArray());
+        JSArray removeArray = call.getArray("remove", new JSArray());
+
+        runOnUiThread("updateHeatmap", () -> {
+            Heatmap heatmap = heatmaps.get(heatmapId);
+            if (heatmap == null) {
+                call.reject("Heatmap not found: " + heatmapId);
+                return;
+            }
+            runInBackground(indexExecutor, "updateHeatmap", () -> {
+                int invalidated;
+                try {
+                    List<String> removedIds = new ArrayList<>(removeArray.length());
+                    for (int i = 0; i < removeArray.length(); i++) {
+                        removedIds.add(removeArray.getString(i));
+                    }
+                    invalidated = heatmap.provider.update(parseHeatmapPoints(addArray), removedIds);
+                } catch (JSONException e) {
+                    call.reject(e.getMessage());
+                    return;
+                }
+
+                runOnUiThread("updateHeatmap", () -> {
+                    // The map re-requests every visible tile; untouched ones come from the provider's cache
+                    if (heatmaps.get(heatmapId) == heatmap) {
+                        heatmap.overlay.clearTileCache();
+                    }
+                    JSObject result = new JSObject();
+                    result.put("pointCount", heatmap.provider.renderer().pointCount());
+                    result.put("invalidatedTiles", invalidated);
+                    call.resolve(result);
+                });
+            });
+        });
+    }
+
+    @PluginMethod
+    public void removeHeatmap(PluginCall call) {
+        String heatmapId = call.getString("heatmapId");
+        if (heatmapId == null) {
+            call.reject("heatmapId is required");
+            return;
+        }
+        runOnUiThread("removeHeatmap", () -> {
+            Heatmap heatmap = heatmaps.remove(heatmapId);
+            if (heatmap != null) {
+                heatmap.overlay.remove();
+                heatmap.provider.clear();
+            }
+            JSObject result = new JSObject();
+            result.put("removed", heatmap != null);
+            call.resolve(result);
+        });
+    }
+
+    private List<HeatmapRenderer.Point> parseHeatmapPoints(JSONArray array) throws JSONException {
+        long start = performance.start();
+        List<HeatmapRenderer.Point> points = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            try {
+                JSONObject point = array.getJSONObject(i);
+                points.add(new HeatmapRenderer.Point(
+                        point.has("id") ? point.getString("id") : null,
+                        point.getDouble("latitude"),
+                        point.getDouble("longitude"),
+                        point.optDouble("weight", 1.0)));
+            } catch (JSONException e) {
+                throw new JSONException("Invalid point at index " + i + ": " + e.getMessage());
+            }
+        }
+        performance.stop(PerformanceMonitor.Phase.DECODE, start);
+        return points;
+    }
+
+    // gradient: {colors: string[], startPoints: number[]} with ascending start points in (0, 1]
+    private static int[] heatmapColorMap(JSObject gradient, double opacity) throws JSONException {
+        int[] colors = { Color.rgb(102, 225, 0), Color.rgb(255, 0, 0) };
+        float[] startPoints = { 0.2f, 1f };
+        if (gradient != null) {
+            JSONArray colorArray = gradient.getJSONArray("colors");
+            JSONArray startArray = gradient.getJSONArray("startPoints");
+            if (colorArray.length() == 0 || colorArray.length() != startArray.length()) {
+                throw new JSONException("colors and startPoints must have the same, non-zero length");
+            }
+            colors = new int[colorArray.length()];
+            startPoints = new float[colorArray.length()];
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = Color.parseColor(colorArray.getString(i));
+                startPoints[i] = (float) startArray.getDouble(i);
+                if (startPoints[i] <= 0 || startPoints[i] > 1 || (i > 0 && startPoints[i] <= startPoints[i - 1])) {
+                    throw new JSONException("startPoints must be ascending and within (0, 1]");
+                }
+            }
+        }
+        return HeatmapRenderer.colorMap(colors, startPoints, Math.max(0, Math.min(1, opacity)), 256);
+    }
+
+    /**
+     * urlTemplate with {x}, {y} and {z}, cacheSizeMb for the on-disk cache (default 100),
+     * tileSize in pixels (default 256), zIndex, transparency. Tiles are cached in memory and
+     * in a file under the app's cache directory that is kept between sessions.
+     */
+    @PluginMethod
+    public void addTileLayer(PluginCall call) {
+        String urlTemplate = call.getString("urlTemplate");
+        if (urlTemplate == null || !urlTemplate.contains("{x}") || !urlTemplate.contains("{y}") || !urlTemplate.contains("{z}")) {
+            call.reject("urlTemplate with {x}, {y} and {z} is required");
+            return;
+        }
+        int cacheSizeMb = call.getInt("cacheSizeMb", 100);
+        if (cacheSizeMb < 1 || cacheSizeMb > 2000) {
+            call.reject("cacheSizeMb must be between 1 and 2000");
+            return;
+        }
+        if (googleMap == null) {
+            call.reject("Map not ready");
+            return;
+        }
+        String id = call.getString("id");
+        int tileSize = call.getInt("tileSize", 256);
+        float zIndex = call.getFloat("zIndex", 0f);
+        float transparency = call.getFloat("transparency", 0f);
+        File cacheFile = new File(new File(getContext().getCacheDir(), "map-tiles"), tileCacheName(urlTemplate));
+
+        runOnUiThread("addTileLayer", () -> {
+            for (Map.Entry<String, TileLayer> entry : tileLayers.entrySet()) {
+                if (entry.getValue().urlTemplate.equals(urlTemplate) && !entry.getKey().equals(id)) {
+                    call.reject("A tile layer for this urlTemplate already exists: " + entry.getKey());
+                    return;
+                }
+            }
+            for (Map.Entry<String, String> entry : pendingTileLayers.entrySet()) {
+                if (entry.getValue().equals(urlTemplate) || entry.getKey().equals(id)) {
+                    call.reject("A tile layer for this urlTemplate or id is still being added: " + entry.getKey());
+                    return;
+                }
+            }
+            String layerId = id != null ? id : "tiles_" + (++tileLayerCounter);
+            pendingTileLayers.put(layerId, urlTemplate);
+            TileLayer previous = tileLayers.remove(layerId);
+            if (previous != null) {
+                previous.overlay.remove();
+                closeTileLayer(previous);
+            }
+
+            // Opening maps the cache file and walks its index
+            runInBackground(tileExecutor, "addTileLayer", () -> {
+                TileLayer layer;
+                try {
+                    long diskBytes = cacheSizeMb * 1024L * 1024L;
+                    synchronized (openTileSources) {
+                        // A replaced or removed layer whose close hasn't run yet
+                        CachedTileSource stale = openTileSources.remove(cacheFile);
+                        if (stale != null) {
+                            stale.close();
+                        }
+                        DiskTileStore disk = new DiskTileStore(cacheFile, diskBytes);
+                        layer = new TileLayer(urlTemplate, cacheFile, new CachedTileSource(urlTemplate, disk,
+                                Math.min(MAX_TILE_MEMORY_CACHE_BYTES, diskBytes / 4), TILE_TIMEOUT_MS));
+                        openTileSources.put(cacheFile, layer.source);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    Log.e(MAPS_TAG, "Cannot open tile cache: " + e.getMessage());
+                    runOnUiThread("addTileLayer", () -> {
+                        pendingTileLayers.remove(layerId);
+                        call.reject("Cannot open tile cache: " + e.getMessage());
+                    });
+                    return;
+                }
+
+                runOnUiThread("addTileLayer", () -> {
+                    pendingTileLayers.remove(layerId);
+                    if (googleMap == null) {
+                        closeTileLayer(layer);
+                        call.reject("Map not ready");
+                        return;
+                    }
+                    // Called on the Maps SDK's tile threads; null asks it to retry later
+                    TileProvider provider = (x, y, zoom) -> {
+                        byte[] data = layer.source.tile(x, y, zoom);
+                        if (data == null) {
+                            return null;
+                        }
+                        return data.length == 0 ? TileProvider.NO_TILE : new Tile(tileSize, tileSize, data);
+                    };
+                    layer.overlay = googleMap.addTileOverlay(new TileOverlayOptions()
+                            .tileProvider(provider)
+                            .zIndex(zIndex)
+                            .transparency(transparency));
+                    tileLayers.put(layerId, layer);
+
+                    JSObject result = new JSObject();
+                    result.put("layerId", layerId);
+                    call.resolve(result);
+                });
+            });
+        });
+    }
+
+    @PluginMethod
+    public void removeTileLayer(PluginCall call) {
+        String layerId = call.getString("layerId");
+        if (layerId == null) {
+            call.reject("layerId is required");
+            return;
+        }
+        runOnUiThread("removeTileLayer", () -> {
+            TileLayer layer = tileLayers.remove(layerId);
+            if (layer != null) {
+                layer.overlay.remove();
+                closeTileLayer(layer);
+            }
+            JSObject result = new JSObject();
+            result.put("removed", layer != null);
+            call.resolve(result);
+        });
+    }
+
+    /**
+     * Downloads every tile of bounds {north, south, east, west} at minZoom..maxZoom into the
+     * layer's cache, concurrency downloads at a time (default 4). Resolves when done.
+     */
+    @PluginMethod
+    public void prefetchRegion(PluginCall call) {
+        String layerId = call.getString("layerId");
+        JSObject bounds = call.getObject("bounds");
+        Integer minZoom = call.getInt("minZoom");
+        Integer maxZoom = call.getInt("maxZoom");
+        if (layerId == null || bounds == null || minZoom == null || maxZoom == null) {
+            call.reject("layerId, bounds, minZoom and maxZoom are required");
+            return;
+        }
+        if (!CachedTileSource.isValidZoom(minZoom) || !CachedTileSource.isValidZoom(maxZoom) || minZoom > maxZoom) {
+            call.reject("Invalid zoom range");
+            return;
+        }
+        double north;
+        double south;
+        double east;
+        double west;
+        try {
+            north = bounds.getDouble("north");
+            south = bounds.getDouble("south");
+            east = bounds.getDouble("east");
+            west = bounds.getDouble("west");
+        } catch (JSONException e) {
+            call.reject("Invalid bounds: " + e.getMessage());
+            return;
+        }
+        long tileCount = CachedTileSource.countTiles(south, west, north, east, minZoom, maxZoom);
+        if (tileCount > MAX_PREFETCH_TILES) {
+            call.reject("Region has " + tileCount + " tiles, more than " + MAX_PREFETCH_TILES);
+            return;
+        }
+        int concurrency = Math.max(1, Math.min(16, call.getInt("concurrency", 4)));
+
+        runOnUiThread("prefetchRegion", () -> {
+            TileLayer layer = tileLayers.get(layerId);
+            if (layer == null) {
+                call.reject("Tile layer not found: " + layerId);
+                return;
+            }
+            tileExecutor.execute(() -> {
+                CachedTileSource.PrefetchResult prefetch;
+                try {
+                    prefetch = layer.source.prefetch(south, west, north, east, minZoom, maxZoom, concurrency, layer.cancelPrefetch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    call.reject("Prefetch interrupted");
+                    return;
+                }
+                JSObject result = new JSObject();
+                result.put("total", prefetch.total);
+                result.put("downloaded", prefetch.downloaded);
+                result.put("cached", prefetch.cached);
+                result.put("failed", prefetch.failed);
+                result.put("cancelled", prefetch.cancelled);
+                call.resolve(result);
+            });
+        });
+    }
+
+    // Stops the layer's prefetches and closes its cache off the UI thread
+    private void closeTileLayer(TileLayer layer) {
+        layer.cancelPrefetch.set(true);
+        tileExecutor.execute(() -> {
+            synchronized (openTileSources) {
+                openTileSources.remove(layer.cacheFile, layer.source);
+                try {
+                    layer.source.close();
+                } catch (IOException e) {
+                    Log.e(MAPS_TAG, "Cannot close tile cache: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    // One cache file per URL template, so layers keep their tiles across sessions
+    private static String tileCacheName(String urlTemplate) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(urlTemplate.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                name.append(String.format(Locale.US, "%02x", digest[i]));
+            }
+            return name + ".tiles";
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(urlTemplate.hashCode()) + ".tiles";
+        }
+    }
+
+    /**
+     * Visible bounds grown by marginRatio of the viewport on every side, as
+     * { south, west, north, east }. West is greater than east across the antimeridian.
+     */
+    private double[] paddedVisibleBounds(double marginRatio) {
+        LatLngBounds bounds = googleMap.getProjection().getVisibleRegion().latLngBounds;
+        double south = bounds.southwest.latitude;
+        double north = bounds.northeast.latitude;
+        double west = bounds.southwest.longitude;
+        double east = bounds.northeast.longitude;
+        double lngSpan = west <= east ? east - west : east + 360 - west;
+        double latPad = (north - south) * marginRatio;
+        double lngPad = lngSpan * marginRatio;
+        if (lngSpan + 2 * lngPad >= 360) {
+            return new double[] { south - latPad, -180, north + latPad, 180 };
+        }
+        return new double[] { south - latPad, wrapLongitude(west - lngPad), north + latPad, wrapLongitude(east + lngPad) };
+    }
+
+    private static double wrapLongitude(double longitude) {
+        if (longitude < -180) return longitude + 360;
+        if (longitude > 180) return longitude - 360;
+        return longitude;
+    }
+
+    // Helper method to get scaled pixels (similar to Kotlin version)
+    private int getScaledPixels(Bridge bridge, int pixels) {
+        float scale = bridge.getActivity().getResources().getDisplayMetrics().density;
+        return (int) (pixels * scale + 0.5f);
+    }
+
+    @Override
+    protected void handleOnPause() {
+        super.handleOnPause();
+        if (mapView != null) mapView.onPause();
+        if (warmMapView != null) warmMapView.onPause();
+        if (trackingCallback != null && !trackingInBackground && !trackingPaused) {
+            fusedLocationClient.removeLocationUpdates(trackingCallback);
+            trackingPaused = true;
+        }
+    }
+
+    @Override
+    protected void handleOnResume() {
+        super.handleOnResume();
+        if (mapView != null) mapView.onResume();
+        // A kept map stays paused until initialize shows it again
+        if (warmMapView != null && "prewarmed".equals(warmStartType)) warmMapView.onResume();
+        if (trackingCallback != null && trackingPaused) {
+            trackingPaused = false;
+            // The first fix after the pause is emitted however little the device moved
+            trackingFilter.reset();
+            try {
+                fusedLocationClient.requestLocationUpdates(trackingRequest, trackingCallback, Looper.getMainLooper());
+            } catch (SecurityException e) {
+                Log.e(MAPS_TAG, "Location permission revoked, tracking stopped");
+                stopLocationUpdates();
+            }
+        }
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        super.handleOnDestroy();
+        if (mapView != null) mapView.onDestroy();
+        if (warmMapView != null) warmMapView.onDestroy();
+        stopLocationUpdates();
+        locationQueryInFlight = false;
+        rejectLocationCalls("Plugin destroyed");
+        iconExecutor.shutdownNow();
+        indexExecutor.shutdownNow();
+        geocodeExecutor.shutdownNow();
+        geocodeTimer.shutdownNow();
+        mainHandler.removeCallbacks(performanceTick);
+        for (TileLayer layer : tileLayers.values()) {
+            closeTileLayer(layer);
+        }
+        tileLayers.clear();
+        // Let the queued cache closes finish; running prefetches stop at their next tile
+        tileExecutor.shutdown();
     }
 
     private Bitmap generateMarkerBitmap(String color1, String color2, String color3, String icon) {
+        return generateMarkerBitmap(color1, color2, color3, icon, mdiTypeface(), 54);
+    }
+
+    private Bitmap generateMarkerBitmap(String color1, String color2, String color3, String text,
+                                        Typeface typeface, float textSize) {
         int width = 100;
         int height = 125;
 
@@ -1018,16 +3723,16 @@ public void clearMarkersByTitle(PluginCall call) {
 
         Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         textPaint.setColor(Color.parseColor(color3));
-        textPaint.setTextSize(54);
+        textPaint.setTextSize(textSize);
         textPaint.setTextAlign(Paint.Align.CENTER);
-        textPaint.setTypeface(mdiTypeface);
+        textPaint.setTypeface(typeface);
 
         Paint.FontMetrics fm = textPaint.getFontMetrics();
         float textHeight = fm.descent - fm.ascent;
         float x = centerX;
         float y = centerY + (textHeight / 2f) - fm.descent;
 
-        canvas.drawText(icon, x, y, textPaint);
+        canvas.drawText(text, x, y, textPaint);
 
         return bitmap;
     }
@@ -0,0 +1,216 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical grid clustering over Web Mercator. Points are bucketed into square grid
+ * cells at maxZoom, and each lower zoom merges 2x2 cells of the level above, so the whole
+ * pyramid is built in one O(n + cells) pass. Pure Java — build it on a background thread
+ * and query it from anywhere; nothing is modified after construction.
+ */
+final class ClusterIndex {
+
+    private static final double MAX_LATITUDE = 85.05112878;
+
+    /** One grid cell with at least one point in it. */
+    static final class Cluster {
+        final int zoom;
+        final long cellKey;
+        int count;
+        double sumLatitude;
+        double sumLongitude;
+        double south = Double.POSITIVE_INFINITY;
+        double north = Double.NEGATIVE_INFINITY;
+        double west = Double.POSITIVE_INFINITY;
+        double east = Double.NEGATIVE_INFINITY;
+
+        // Leaf cells (maxZoom) hold point indices, the others hold their child cells
+        private int[] members = new int[2];
+        private List<Cluster> children;
+
+        Cluster(int zoom, long cellKey) {
+            this.zoom = zoom;
+            this.cellKey = cellKey;
+        }
+
+        double latitude() {
+            return sumLatitude / count;
+        }
+
+        double longitude() {
+            return sumLongitude / count;
+        }
+
+        String id() {
+            return zoom + "/" + cellKey;
+        }
+
+        private void addPoint(int index, double lat, double lng) {
+            if (count == members.length) {
+                int[] grown = new int[count * 2];
+                System.arraycopy(members, 0, grown, 0, count);
+                members = grown;
+            }
+            members[count] = index;
+            extend(1, lat, lng, lat, lat, lng, lng);
+        }
+
+        private void addChild(Cluster child) {
+            if (children == null) {
+                children = new ArrayList<>(4);
+                members = null;
+            }
+            children.add(child);
+            extend(child.count, child.sumLatitude, child.sumLongitude, child.south, child.north, child.west, child.east);
+        }
+
+        private void extend(int n, double sumLat, double sumLng, double s, double nrt, double w, double e) {
+            count += n;
+            sumLatitude += sumLat;
+            sumLongitude += sumLng;
+            south = Math.min(south, s);
+            north = Math.max(north, nrt);
+            west = Math.min(west, w);
+            east = Math.max(east, e);
+        }
+
+        /** Indices (into the arrays the index was built from) of every point in this cluster. */
+        int[] memberIndices() {
+            int[] out = new int[count];
+            collect(out, 0);
+            return out;
+        }
+
+        private int collect(int[] out, int offset) {
+            if (children == null) {
+                System.arraycopy(members, 0, out, offset, count);
+                return offset + count;
+            }
+            for (Cluster child : children) {
+                offset = child.collect(out, offset);
+            }
+            return offset;
+        }
+    }
+
+    private final int minZoom;
+    // The map's zoom range. At most 2^26 cells per axis, so cx * cells + cy fits a long
+    static final int MAX_ZOOM = 22;
+
+    private final int maxZoom;
+    private final int cellShift;
+    private final List<Map<Long, Cluster>> levels;
+
+    /**
+     * @param gridSizePx cell edge in screen pixels, rounded to a power of two in [16, 256]
+     * @param minZoom   clamped to [0, MAX_ZOOM], as is maxZoom
+     */
+    ClusterIndex(double[] latitudes, double[] longitudes, int count, int gridSizePx, int minZoom, int maxZoom) {
+        this.minZoom = Math.max(0, Math.min(MAX_ZOOM, minZoom));
+        this.maxZoom = Math.max(this.minZoom, Math.min(MAX_ZOOM, maxZoom));
+        // 256px tiles: a zoom z world has 2^(z + 8 - log2(gridSize)) cells per axis
+        this.cellShift = 8 - log2(roundToPowerOfTwo(Math.max(16, Math.min(256, gridSizePx))));
+        this.levels = new ArrayList<>(this.maxZoom - this.minZoom + 1);
+        for (int z = this.minZoom; z <= this.maxZoom; z++) {
+            levels.add(null);
+        }
+
+        Map<Long, Cluster> leaves = new HashMap<>();
+        long leafCells = cellsPerAxis(this.maxZoom);
+        for (int i = 0; i < count; i++) {
+            double lat = latitudes[i];
+            double lng = longitudes[i];
+            long cx = cellIndex(mercatorX(lng), leafCells);
+            long cy = cellIndex(mercatorY(lat), leafCells);
+            long key = cx * leafCells + cy;
+            Cluster cell = leaves.get(key);
+            if (cell == null) {
+                cell = new Cluster(this.maxZoom, key);
+                leaves.put(key, cell);
+            }
+            cell.addPoint(i, lat, lng);
+        }
+        levels.set(this.maxZoom - this.minZoom, leaves);
+
+        Map<Long, Cluster> below = leaves;
+        for (int z = this.maxZoom - 1; z >= this.minZoom; z--) {
+            long childCells = cellsPerAxis(z + 1);
+            long cells = cellsPerAxis(z);
+            Map<Long, Cluster> level = new HashMap<>();
+            for (Cluster child : below.values()) {
+                long cx = (child.cellKey / childCells) >> 1;
+                long cy = (child.cellKey % childCells) >> 1;
+                long key = cx * cells + cy;
+                Cluster parent = level.get(key);
+                if (parent == null) {
+                    parent = new Cluster(z, key);
+                    level.put(key, parent);
+                }
+                parent.addChild(child);
+            }
+            levels.set(z - this.minZoom, level);
+            below = level;
+        }
+    }
+
+    int maxZoom() {
+        return maxZoom;
+    }
+
+    /**
+     * Clusters at the given zoom whose member bounds intersect the box. Returns null when
+     * the zoom is past maxZoom, meaning markers should be shown individually.
+     * A west greater than east is treated as a box crossing the antimeridian.
+     */
+    List<Cluster> clustersInView(int zoom, double south, double west, double north, double east) {
+        if (zoom > maxZoom) {
+            return null;
+        }
+        Map<Long, Cluster> level = levels.get(Math.max(zoom, minZoom) - minZoom);
+        List<Cluster> result = new ArrayList<>();
+        boolean wraps = west > east;
+        for (Cluster cell : level.values()) {
+            if (cell.north < south || cell.south > north) {
+                continue;
+            }
+            boolean inLng = wraps
+                    ? cell.east >= west || cell.west <= east
+                    : cell.east >= west && cell.west <= east;
+            if (inLng) {
+                result.add(cell);
+            }
+        }
+        return result;
+    }
+
+    private long cellsPerAxis(int zoom) {
+        return 1L << (zoom + cellShift);
+    }
+
+    private static long cellIndex(double worldCoord, long cells) {
+        long index = (long) Math.floor(worldCoord * cells);
+        return Math.max(0, Math.min(cells - 1, index));
+    }
+
+    static double mercatorX(double longitude) {
+        return (longitude + 180.0) / 360.0;
+    }
+
+    static double mercatorY(double latitude) {
+        double lat = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+        double sin = Math.sin(Math.toRadians(lat));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    private static int roundToPowerOfTwo(int value) {
+        int lower = Integer.highestOneBit(value);
+        return value - lower < (lower << 1) - value ? lower : lower << 1;
+    }
+
+    private static int log2(int powerOfTwo) {
+        return Integer.numberOfTrailingZeros(powerOfTwo);
+    }
+}
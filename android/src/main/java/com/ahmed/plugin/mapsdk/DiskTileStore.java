@@ -0,0 +1,230 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Fixed-size tile store in a single memory-mapped file, used as a ring log: tiles are
+ * appended one after another and when the end of the file is reached writing starts over
+ * at the beginning, overwriting the oldest tiles first. Reads and writes are plain memory
+ * copies; the OS writes dirty pages back in the background, so tiles survive the app being
+ * killed. The index lives in memory and is rebuilt by walking the entry headers on open.
+ * Thread-safe. A file can only be open once per process: two stores would keep separate
+ * indexes over one mapping, and resizing would truncate it under the other.
+ *
+ * File layout: a header {magic, version, writePosition, oldStart, oldEnd}, then entries of
+ * {magic, key, length, bytes}. Entries of the current lap run from the data start to
+ * writePosition, entries left from the previous lap from oldStart to oldEnd.
+ */
+final class DiskTileStore {
+
+    private static final int MAGIC = 0x4d545331; // "MTS1"
+    private static final int VERSION = 1;
+    private static final int ENTRY_MAGIC = 0x54494c45; // "TILE"
+    private static final int HEADER_SIZE = 32;
+    private static final int ENTRY_HEADER_SIZE = 16;
+    private static final long MAX_CAPACITY = Integer.MAX_VALUE;
+
+    // Canonical paths of the stores currently open
+    private static final Set<String> openPaths = new HashSet<>();
+
+    private final String canonicalPath;
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private final Map<Long, Integer> offsetByKey = new HashMap<>();
+    // Every entry in the file by offset, including ones superseded by a newer copy
+    private final TreeMap<Integer, Long> keyByOffset = new TreeMap<>();
+    private int writePosition;
+    private int oldStart;
+    private int oldEnd;
+    private boolean closed = false;
+
+    /**
+     * Opens the store at path, or creates it if it's missing or was made with another size.
+     * Throws IOException if the file is already open in another store that hasn't been closed.
+     */
+    DiskTileStore(File path, long capacityBytes) throws IOException {
+        if (capacityBytes < HEADER_SIZE + ENTRY_HEADER_SIZE || capacityBytes > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity out of range: " + capacityBytes);
+        }
+        File parent = path.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        this.canonicalPath = path.getCanonicalPath();
+        synchronized (openPaths) {
+            if (!openPaths.add(canonicalPath)) {
+                throw new IOException("Tile store already open: " + path);
+            }
+        }
+        this.capacity = (int) capacityBytes;
+        RandomAccessFile opened = null;
+        try {
+            opened = new RandomAccessFile(path, "rw");
+            boolean fresh = opened.length() != capacity;
+            if (fresh) {
+                opened.setLength(0);
+                opened.setLength(capacity);
+            }
+            this.buffer = opened.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            this.file = opened;
+            if (fresh || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || !load()) {
+                reset();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (opened != null) {
+                opened.close();
+            }
+            synchronized (openPaths) {
+                openPaths.remove(canonicalPath);
+            }
+            throw e;
+        }
+    }
+
+    synchronized byte[] get(long key) {
+        if (closed) {
+            return null;
+        }
+        Integer offset = offsetByKey.get(key);
+        if (offset == null) {
+            return null;
+        }
+        byte[] data = new byte[buffer.getInt(offset + 12)];
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset + ENTRY_HEADER_SIZE);
+        view.get(data);
+        return data;
+    }
+
+    synchronized boolean contains(long key) {
+        return !closed && offsetByKey.containsKey(key);
+    }
+
+    /** Stores data under key, replacing any previous copy. Tiles larger than the store are skipped. */
+    synchronized void put(long key, byte[] data) {
+        int size = ENTRY_HEADER_SIZE + data.length;
+        if (closed || size > capacity - HEADER_SIZE) {
+            return;
+        }
+        if (writePosition + size > capacity) {
+            // Wrap around: the lap just finished becomes the old one. Anything left from the lap
+            // before it is past the new old region's end and is dropped.
+            evict(writePosition, capacity);
+            oldStart = HEADER_SIZE;
+            oldEnd = writePosition;
+            writePosition = HEADER_SIZE;
+        }
+        evict(writePosition, writePosition + size);
+
+        int offset = writePosition;
+        buffer.putInt(offset, ENTRY_MAGIC);
+        buffer.putLong(offset + 4, key);
+        buffer.putInt(offset + 12, data.length);
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset + ENTRY_HEADER_SIZE);
+        view.put(data);
+        offsetByKey.put(key, offset);
+        keyByOffset.put(offset, key);
+
+        writePosition = offset + size;
+        Integer nextOld = keyByOffset.ceilingKey(writePosition);
+        oldStart = nextOld != null && nextOld < oldEnd ? nextOld : oldEnd;
+        writeHeader();
+    }
+
+    synchronized int size() {
+        return offsetByKey.size();
+    }
+
+    /** Forces dirty pages to disk. */
+    synchronized void flush() {
+        if (!closed) {
+            buffer.force();
+        }
+    }
+
+    /** Flushes and releases the file. Afterwards the store is empty and ignores writes; closing again does nothing. */
+    synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        offsetByKey.clear();
+        keyByOffset.clear();
+        try {
+            buffer.force();
+            file.close();
+        } finally {
+            synchronized (openPaths) {
+                openPaths.remove(canonicalPath);
+            }
+        }
+    }
+
+    // Drops every entry that starts in [from, to); all old-lap entries start at or after writePosition
+    private void evict(int from, int to) {
+        Map.Entry<Integer, Long> entry = keyByOffset.ceilingEntry(from);
+        while (entry != null && entry.getKey() < to) {
+            offsetByKey.remove(entry.getValue(), entry.getKey());
+            keyByOffset.remove(entry.getKey());
+            entry = keyByOffset.higherEntry(entry.getKey());
+        }
+    }
+
+    private boolean load() {
+        writePosition = buffer.getInt(8);
+        oldStart = buffer.getInt(12);
+        oldEnd = buffer.getInt(16);
+        if (writePosition < HEADER_SIZE || writePosition > capacity
+                || oldStart < writePosition && oldStart != oldEnd || oldEnd > capacity || oldStart > oldEnd) {
+            return false;
+        }
+        // Older entries first so a newer copy of a key wins
+        scan(oldStart, oldEnd);
+        scan(HEADER_SIZE, writePosition);
+        return true;
+    }
+
+    private void scan(int from, int to) {
+        int offset = from;
+        while (offset + ENTRY_HEADER_SIZE <= to && buffer.getInt(offset) == ENTRY_MAGIC) {
+            long key = buffer.getLong(offset + 4);
+            int length = buffer.getInt(offset + 12);
+            if (length < 0 || offset + ENTRY_HEADER_SIZE + length > to) {
+                break;
+            }
+            offsetByKey.put(key, offset);
+            keyByOffset.put(offset, key);
+            offset += ENTRY_HEADER_SIZE + length;
+        }
+    }
+
+    private void reset() {
+        offsetByKey.clear();
+        keyByOffset.clear();
+        writePosition = HEADER_SIZE;
+        oldStart = HEADER_SIZE;
+        oldEnd = HEADER_SIZE;
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        writeHeader();
+    }
+
+    private void writeHeader() {
+        buffer.putInt(8, writePosition);
+        buffer.putInt(12, oldStart);
+        buffer.putInt(16, oldEnd);
+    }
+}
@@ -0,0 +1,92 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queue of events raised between two frames, drained once per frame into a single bridge
+ * message. Each event name has a coalescing rule: keep every occurrence, keep only the
+ * latest, or keep the latest per key (e.g. per marker). A coalesced event keeps the queue
+ * position of its first occurrence, so a drag update still arrives before the drag end.
+ * Generic over the payload so it can be tested without JSObject. Thread-safe.
+ */
+final class EventBatcher<T> {
+
+    enum Rule { ALL, LATEST, LATEST_PER_KEY }
+
+    static final class Event<T> {
+        final String name;
+        final String key;
+        T data;
+        // Later occurrences merged into this one
+        int coalesced;
+
+        Event(String name, String key, T data) {
+            this.name = name;
+            this.key = key;
+            this.data = data;
+        }
+    }
+
+    private final Map<String, Rule> rules = new HashMap<>();
+    private List<Event<T>> queue = new ArrayList<>();
+    // name, or name + key, to the queued event it would replace
+    private final Map<String, Event<T>> coalescable = new HashMap<>();
+    private int coalescedCount = 0;
+
+    synchronized void setRule(String name, Rule rule) {
+        rules.put(name, rule);
+    }
+
+    synchronized Rule rule(String name) {
+        Rule rule = rules.get(name);
+        return rule != null ? rule : Rule.ALL;
+    }
+
+    /**
+     * Queues the event. key only matters for LATEST_PER_KEY and may be null otherwise.
+     * Returns true when the queue was empty, i.e. the caller should schedule a flush.
+     */
+    synchronized boolean add(String name, String key, T data) {
+        boolean wasEmpty = queue.isEmpty();
+        Rule rule = rule(name);
+        if (rule == Rule.ALL) {
+            queue.add(new Event<>(name, key, data));
+            return wasEmpty;
+        }
+
+        String slot = rule == Rule.LATEST ? name : name + '\u0000' + key;
+        Event<T> queued = coalescable.get(slot);
+        if (queued != null) {
+            queued.data = data;
+            queued.coalesced++;
+            coalescedCount++;
+            return false;
+        }
+        Event<T> event = new Event<>(name, key, data);
+        queue.add(event);
+        coalescable.put(slot, event);
+        return wasEmpty;
+    }
+
+    /** Takes everything queued so far, in order. */
+    synchronized List<Event<T>> drain() {
+        List<Event<T>> drained = queue;
+        queue = new ArrayList<>(Math.max(8, drained.size()));
+        coalescable.clear();
+        return drained;
+    }
+
+    /** Events merged into an already queued one since the last call. */
+    synchronized int takeCoalescedCount() {
+        int count = coalescedCount;
+        coalescedCount = 0;
+        return count;
+    }
+
+    synchronized boolean isEmpty() {
+        return queue.isEmpty();
+    }
+}
@@ -0,0 +1,76 @@
+package com.ahmed.plugin.mapsdk;
+
+/**
+ * Rate limiter for high-frequency map events (camera moves, marker drags). The caller
+ * offers every raw event and acts on the answer: emit now, drop it, or schedule a single
+ * trailing emission after the returned delay. The trailing emission should read the
+ * latest state when it fires, so only the most recent value is ever delivered.
+ * Time is passed in so the logic can be tested without a clock. Not thread-safe.
+ */
+final class EventThrottle {
+
+    static final long EMIT_NOW = 0;
+    static final long DROP = -1;
+
+    private long intervalMs;
+    private boolean trailing;
+    private long lastEmitMs;
+    private boolean emittedOnce;
+    private boolean trailingPending;
+
+    /** @param maxRateHz events per second; 0 or less means unlimited */
+    EventThrottle(double maxRateHz, boolean trailing) {
+        configure(maxRateHz, trailing);
+    }
+
+    void configure(double maxRateHz, boolean trailing) {
+        this.intervalMs = maxRateHz > 0 ? Math.max(1, Math.round(1000 / maxRateHz)) : 0;
+        this.trailing = trailing;
+        reset();
+    }
+
+    boolean isUnlimited() {
+        return intervalMs == 0;
+    }
+
+    /**
+     * Returns EMIT_NOW, DROP, or the delay in milliseconds after which the caller should
+     * emit once and call trailingFired. A trailing emission already scheduled absorbs
+     * every event offered until it fires.
+     */
+    long offer(long nowMs) {
+        if (intervalMs == 0) {
+            return EMIT_NOW;
+        }
+        if (trailingPending) {
+            return DROP;
+        }
+        long elapsed = nowMs - lastEmitMs;
+        if (!emittedOnce || elapsed >= intervalMs) {
+            emittedOnce = true;
+            lastEmitMs = nowMs;
+            return EMIT_NOW;
+        }
+        if (!trailing) {
+            return DROP;
+        }
+        trailingPending = true;
+        return intervalMs - elapsed;
+    }
+
+    void trailingFired(long nowMs) {
+        trailingPending = false;
+        emittedOnce = true;
+        lastEmitMs = nowMs;
+    }
+
+    boolean isTrailingPending() {
+        return trailingPending;
+    }
+
+    /** Forgets the last emission and any scheduled trailing one, e.g. when a gesture ends. */
+    void reset() {
+        emittedOnce = false;
+        trailingPending = false;
+    }
+}
@@ -0,0 +1,395 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Point set and rasterizer behind a heatmap tile layer. Points are kept in a Web Mercator
+ * grid so a tile only visits the points within reach of its pixels, and can be added or
+ * removed by id afterwards; update() reports the tiles whose pixels changed so only those
+ * need redrawing. Colors are normalized against a per-zoom maximum intensity estimated
+ * when the renderer is built and kept fixed afterwards, so an update never changes the
+ * colors of tiles it didn't touch. Pure Java and thread-safe: tiles render concurrently
+ * under a read lock, updates take the write lock.
+ */
+final class HeatmapRenderer {
+
+    static final int TILE_SIZE = 256;
+    static final int MAX_ZOOM = 21;
+
+    // Grid cells are tiles at this zoom
+    private static final int INDEX_ZOOM = 10;
+    private static final int INDEX_CELLS = 1 << INDEX_ZOOM;
+
+    static final class Point {
+        final String id;
+        final double latitude;
+        final double longitude;
+        final double weight;
+
+        Point(String id, double latitude, double longitude, double weight) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.weight = weight;
+        }
+    }
+
+    // Point indices in one grid cell; removal swaps the last entry in
+    private static final class Cell {
+        int[] items = new int[4];
+        int size;
+
+        void add(int index) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = index;
+        }
+
+        void remove(int index) {
+            for (int i = 0; i < size; i++) {
+                if (items[i] == index) {
+                    items[i] = items[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private final int radius;
+    private final float[] kernel;
+    private final int[] colorMap;
+    private final double[] maxIntensity = new double[MAX_ZOOM + 1];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Slots of removed points are reused; weight 0 marks a free slot
+    private double[] x = new double[16];
+    private double[] y = new double[16];
+    private double[] weights = new double[16];
+    private int slots = 0;
+    private final List<Integer> freeSlots = new ArrayList<>();
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private int pointCount = 0;
+
+    /**
+     * @param radius kernel radius in tile pixels
+     * @param colorMap intensity 0..1 mapped onto its entries, see colorMap()
+     * @param fixedMaxIntensity intensity drawn with the last color, or 0 to estimate it per zoom
+     */
+    HeatmapRenderer(Collection<Point> points, int radius, int[] colorMap, double fixedMaxIntensity) {
+        this.radius = Math.max(1, radius);
+        this.kernel = kernel(this.radius);
+        this.colorMap = colorMap;
+        for (Point point : points) {
+            add(point);
+        }
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            maxIntensity[zoom] = fixedMaxIntensity > 0 ? fixedMaxIntensity : estimateMaxIntensity(zoom);
+        }
+    }
+
+    int pointCount() {
+        lock.readLock().lock();
+        try {
+            return pointCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the points with the given ids, then adds the new ones (a new point replaces an
+     * existing one with the same id). Every tile whose pixels may have changed is added to
+     * dirtyTiles as a tileKey().
+     */
+    void update(Collection<Point> added, Collection<String> removedIds, Set<Long> dirtyTiles) {
+        lock.writeLock().lock();
+        try {
+            for (String id : removedIds) {
+                Integer slot = slotById.remove(id);
+                if (slot != null) {
+                    addDirtyTiles(x[slot], y[slot], dirtyTiles);
+                    removeSlot(slot);
+                }
+            }
+            for (Point point : added) {
+                if (point.id != null) {
+                    Integer slot = slotById.remove(point.id);
+                    if (slot != null) {
+                        addDirtyTiles(x[slot], y[slot], dirtyTiles);
+                        removeSlot(slot);
+                    }
+                }
+                int slot = add(point);
+                if (slot >= 0) {
+                    addDirtyTiles(x[slot], y[slot], dirtyTiles);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Draws tile (tileX, tileY) at zoom into pixels as non-premultiplied ARGB, row by row.
+     * intensity is scratch space; both buffers hold TILE_SIZE * TILE_SIZE values. Returns
+     * false, leaving pixels untouched, when no point reaches the tile.
+     */
+    boolean render(int tileX, int tileY, int zoom, float[] intensity, int[] pixels) {
+        double scale = TILE_SIZE * (double) (1L << zoom);
+        double tileWorld = 1.0 / (1L << zoom);
+        double reach = radius / scale;
+        double west = tileX * tileWorld - reach;
+        double east = (tileX + 1) * tileWorld + reach;
+        double north = tileY * tileWorld - reach;
+        double south = (tileY + 1) * tileWorld + reach;
+
+        boolean touched = false;
+        lock.readLock().lock();
+        try {
+            if (pointCount == 0) {
+                return false;
+            }
+            Arrays.fill(intensity, 0f);
+            // Tiles at the antimeridian also pick up points from the other edge of the world
+            for (int wrap = -1; wrap <= 1; wrap++) {
+                if (west - wrap > 1 || east - wrap < 0) {
+                    continue;
+                }
+                touched |= accumulate(west - wrap, north, east - wrap, south,
+                        (tileX * tileWorld - wrap) * scale, tileY * tileWorld * scale, scale, intensity);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!touched) {
+            return false;
+        }
+
+        double max = maxIntensity[Math.min(zoom, MAX_ZOOM)];
+        int last = colorMap.length - 1;
+        for (int i = 0; i < intensity.length; i++) {
+            float value = intensity[i];
+            if (value <= 0) {
+                pixels[i] = 0;
+            } else {
+                int index = (int) (value / max * last);
+                pixels[i] = colorMap[Math.min(last, index)];
+            }
+        }
+        return true;
+    }
+
+    private boolean accumulate(double west, double north, double east, double south,
+                               double originX, double originY, double scale, float[] intensity) {
+        int cellWest = cellIndex(west);
+        int cellEast = cellIndex(east);
+        int cellNorth = cellIndex(north);
+        int cellSouth = cellIndex(south);
+        long rangeSize = (long) (cellEast - cellWest + 1) * (cellSouth - cellNorth + 1);
+
+        boolean touched = false;
+        if (rangeSize > cells.size()) {
+            // Zoomed out: visiting the occupied cells is cheaper than the range
+            for (Cell cell : cells.values()) {
+                touched |= accumulateCell(cell, west, north, east, south, originX, originY, scale, intensity);
+            }
+        } else {
+            for (int cy = cellNorth; cy <= cellSouth; cy++) {
+                for (int cx = cellWest; cx <= cellEast; cx++) {
+                    Cell cell = cells.get(cellKey(cx, cy));
+                    if (cell != null) {
+                        touched |= accumulateCell(cell, west, north, east, south, originX, originY, scale, intensity);
+                    }
+                }
+            }
+        }
+        return touched;
+    }
+
+    private boolean accumulateCell(Cell cell, double west, double north, double east, double south,
+                                   double originX, double originY, double scale, float[] intensity) {
+        boolean touched = false;
+        int size = 2 * radius + 1;
+        for (int i = 0; i < cell.size; i++) {
+            int slot = cell.items[i];
+            double px = x[slot];
+            double py = y[slot];
+            if (px < west || px > east || py < north || py > south) {
+                continue;
+            }
+            int centerX = (int) Math.round(px * scale - originX);
+            int centerY = (int) Math.round(py * scale - originY);
+            float weight = (float) weights[slot];
+            int fromX = Math.max(0, centerX - radius);
+            int toX = Math.min(TILE_SIZE - 1, centerX + radius);
+            int fromY = Math.max(0, centerY - radius);
+            int toY = Math.min(TILE_SIZE - 1, centerY + radius);
+            for (int ty = fromY; ty <= toY; ty++) {
+                int kernelRow = (ty - centerY + radius) * size - centerX + radius;
+                int row = ty * TILE_SIZE;
+                for (int tx = fromX; tx <= toX; tx++) {
+                    intensity[row + tx] += kernel[kernelRow + tx] * weight;
+                }
+            }
+            touched |= fromX <= toX && fromY <= toY;
+        }
+        return touched;
+    }
+
+    /**
+     * Estimates the intensity of the hottest spot at zoom by summing weights in buckets of one
+     * kernel radius, the same heuristic as the Maps utility library.
+     */
+    private double estimateMaxIntensity(int zoom) {
+        double bucketsPerAxis = TILE_SIZE * (double) (1L << zoom) / radius;
+        Map<Long, Double> buckets = new HashMap<>();
+        double max = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (weights[slot] == 0) {
+                continue;
+            }
+            long bx = (long) (x[slot] * bucketsPerAxis);
+            long by = (long) (y[slot] * bucketsPerAxis);
+            double sum = buckets.merge(bx * (long) Math.ceil(bucketsPerAxis) + by, weights[slot], Double::sum);
+            max = Math.max(max, sum);
+        }
+        return max > 0 ? max : 1;
+    }
+
+    // Tiles at every zoom whose pixels are within one radius of the world point
+    private void addDirtyTiles(double worldX, double worldY, Set<Long> out) {
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            int tiles = 1 << zoom;
+            double reach = radius / (TILE_SIZE * (double) tiles);
+            int fromX = (int) Math.floor((worldX - reach) * tiles);
+            int toX = (int) Math.floor((worldX + reach) * tiles);
+            int fromY = Math.max(0, (int) Math.floor((worldY - reach) * tiles));
+            int toY = Math.min(tiles - 1, (int) Math.floor((worldY + reach) * tiles));
+            for (int tx = fromX; tx <= toX; tx++) {
+                int wrapped = Math.floorMod(tx, tiles);
+                for (int ty = fromY; ty <= toY; ty++) {
+                    out.add(tileKey(wrapped, ty, zoom));
+                }
+            }
+        }
+    }
+
+    // Points without a positive weight are ignored; returns the slot or -1
+    private int add(Point point) {
+        if (!(point.weight > 0)) {
+            return -1;
+        }
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.remove(freeSlots.size() - 1);
+        } else {
+            if (slots == x.length) {
+                x = Arrays.copyOf(x, slots * 2);
+                y = Arrays.copyOf(y, slots * 2);
+                weights = Arrays.copyOf(weights, slots * 2);
+            }
+            slot = slots++;
+        }
+        x[slot] = ClusterIndex.mercatorX(point.longitude);
+        y[slot] = ClusterIndex.mercatorY(point.latitude);
+        weights[slot] = point.weight;
+        cells.computeIfAbsent(cellKey(cellIndex(x[slot]), cellIndex(y[slot])), k -> new Cell()).add(slot);
+        if (point.id != null) {
+            Integer previous = slotById.put(point.id, slot);
+            if (previous != null) {
+                removeSlot(previous);
+            }
+        }
+        pointCount++;
+        return slot;
+    }
+
+    private void removeSlot(int slot) {
+        long key = cellKey(cellIndex(x[slot]), cellIndex(y[slot]));
+        Cell cell = cells.get(key);
+        cell.remove(slot);
+        if (cell.size == 0) {
+            cells.remove(key);
+        }
+        weights[slot] = 0;
+        freeSlots.add(slot);
+        pointCount--;
+    }
+
+    static long tileKey(int x, int y, int zoom) {
+        return ((long) zoom << 58) | ((long) x << 29) | y;
+    }
+
+    private static int cellIndex(double worldCoord) {
+        return Math.max(0, Math.min(INDEX_CELLS - 1, (int) Math.floor(worldCoord * INDEX_CELLS)));
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return (long) cy * INDEX_CELLS + cx;
+    }
+
+    // Gaussian with sigma radius / 3, so it has faded out at the edge of the square
+    private static float[] kernel(int radius) {
+        int size = 2 * radius + 1;
+        float[] kernel = new float[size * size];
+        double sigma = radius / 3.0;
+        for (int dy = -radius; dy <= radius; dy++) {
+            for (int dx = -radius; dx <= radius; dx++) {
+                kernel[(dy + radius) * size + dx + radius] =
+                        (float) Math.exp(-(dx * dx + dy * dy) / (2 * sigma * sigma));
+            }
+        }
+        return kernel;
+    }
+
+    /**
+     * Builds a lookup of ARGB colors for intensities 0..1. colors[i] is reached at
+     * startPoints[i]; below the first start point that color fades in from transparent.
+     * opacity scales every alpha.
+     */
+    static int[] colorMap(int[] colors, float[] startPoints, double opacity, int size) {
+        int[] map = new int[size];
+        for (int i = 0; i < size; i++) {
+            float t = i / (float) (size - 1);
+            int color;
+            if (t <= startPoints[0]) {
+                float fade = startPoints[0] > 0 ? t / startPoints[0] : 1;
+                color = (Math.round((colors[0] >>> 24) * fade) << 24) | (colors[0] & 0xFFFFFF);
+            } else {
+                int stop = 1;
+                while (stop < startPoints.length - 1 && t > startPoints[stop]) {
+                    stop++;
+                }
+                if (t >= startPoints[startPoints.length - 1]) {
+                    color = colors[colors.length - 1];
+                } else {
+                    float span = startPoints[stop] - startPoints[stop - 1];
+                    color = interpolate(colors[stop - 1], colors[stop], span > 0 ? (t - startPoints[stop - 1]) / span : 1);
+                }
+            }
+            int alpha = (int) Math.round((color >>> 24) * opacity);
+            map[i] = (alpha << 24) | (color & 0xFFFFFF);
+        }
+        return map;
+    }
+
+    private static int interpolate(int from, int to, float fraction) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int a = (from >>> shift) & 0xFF;
+            int b = (to >>> shift) & 0xFF;
+            result |= Math.round(a + (b - a) * fraction) << shift;
+        }
+        return result;
+    }
+}
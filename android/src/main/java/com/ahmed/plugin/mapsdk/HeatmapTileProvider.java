@@ -0,0 +1,102 @@
+package com.ahmed.plugin.mapsdk;
+
+import android.graphics.Bitmap;
+
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * TileProvider for a heatmap layer. The Maps SDK calls getTile from its own pool of tile
+ * threads, so rasterizing and PNG encoding happen there, several tiles at a time. Encoded
+ * tiles are kept in a byte-bounded LRU keyed by zoom and position; an update drops only the
+ * tiles it touched, so after the overlay's clearTileCache() the rest come straight from it.
+ */
+final class HeatmapTileProvider implements TileProvider {
+
+    private static final int PIXELS = HeatmapRenderer.TILE_SIZE * HeatmapRenderer.TILE_SIZE;
+    // Empty tiles are cached too, so panning over empty areas doesn't re-query the grid
+    private static final long EMPTY_TILE_WEIGHT = 64;
+
+    private static final class Buffers {
+        final float[] intensity = new float[PIXELS];
+        final int[] pixels = new int[PIXELS];
+        final Bitmap bitmap = Bitmap.createBitmap(HeatmapRenderer.TILE_SIZE, HeatmapRenderer.TILE_SIZE, Bitmap.Config.ARGB_8888);
+        final ByteArrayOutputStream png = new ByteArrayOutputStream(16 * 1024);
+    }
+
+    private final HeatmapRenderer renderer;
+    private final BoundedLruCache<Long, Tile> tiles;
+    // Bumped by every update; a tile rendered across an update is returned but not cached.
+    // The check-and-put and the bump-and-evict are both done holding the provider's lock
+    private int generation = 0;
+    private final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+    HeatmapTileProvider(HeatmapRenderer renderer, long cacheBytes) {
+        this.renderer = renderer;
+        this.tiles = new BoundedLruCache<>(cacheBytes);
+    }
+
+    HeatmapRenderer renderer() {
+        return renderer;
+    }
+
+    @Override
+    public Tile getTile(int x, int y, int zoom) {
+        long key = HeatmapRenderer.tileKey(x, y, zoom);
+        Tile cached = tiles.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        int startGeneration;
+        synchronized (this) {
+            startGeneration = generation;
+        }
+        Buffers buffers = this.buffers.get();
+        Tile tile;
+        if (renderer.render(x, y, zoom, buffers.intensity, buffers.pixels)) {
+            buffers.bitmap.setPixels(buffers.pixels, 0, HeatmapRenderer.TILE_SIZE, 0, 0,
+                    HeatmapRenderer.TILE_SIZE, HeatmapRenderer.TILE_SIZE);
+            buffers.png.reset();
+            buffers.bitmap.compress(Bitmap.CompressFormat.PNG, 100, buffers.png);
+            tile = new Tile(HeatmapRenderer.TILE_SIZE, HeatmapRenderer.TILE_SIZE, buffers.png.toByteArray());
+        } else {
+            tile = NO_TILE;
+        }
+        synchronized (this) {
+            if (generation == startGeneration) {
+                tiles.put(key, tile, tile.data != null ? tile.data.length : EMPTY_TILE_WEIGHT);
+            }
+        }
+        return tile;
+    }
+
+    /**
+     * Applies a point update and evicts the tiles it changed. Returns how many cached tiles
+     * were evicted. The overlay's clearTileCache() must be called afterwards.
+     */
+    int update(Collection<HeatmapRenderer.Point> added, Collection<String> removedIds) {
+        Set<Long> dirty = new HashSet<>();
+        renderer.update(added, removedIds, dirty);
+        int evicted = 0;
+        synchronized (this) {
+            generation++;
+            for (long key : dirty) {
+                if (tiles.remove(key) != null) {
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    synchronized void clear() {
+        generation++;
+        tiles.clear();
+    }
+}
@@ -0,0 +1,122 @@
+package com.ahmed.plugin.mapsdk;
+
+/**
+ * Cleans up a stream of location fixes before they go over the bridge. Each fix is checked
+ * against the current estimate: one that would mean moving faster than maxSpeed (allowing
+ * for both accuracies) is dropped as an outlier, unless several in a row agree, in which
+ * case the filter starts over from them. Accepted fixes are smoothed with a simple Kalman
+ * filter weighted by their reported accuracy, and a fix is only emitted once the smoothed
+ * position has moved at least minDistance from the last emitted one. Pure Java so it can be
+ * unit tested; not thread-safe.
+ */
+final class LocationFilter {
+
+    private static final double EARTH_RADIUS_M = 6371008.8;
+    // Process noise in m/s when the fix carries no speed
+    private static final double MIN_PROCESS_NOISE = 3;
+    private static final int MAX_CONSECUTIVE_OUTLIERS = 3;
+
+    private final double minDistanceM;
+    private final double maxSpeedMps;
+
+    private double latitude;
+    private double longitude;
+    // Estimate variance in m², negative until the first fix
+    private double variance = -1;
+    private long timeMs;
+    private int outliers = 0;
+
+    private boolean emitted = false;
+    private double emittedLatitude;
+    private double emittedLongitude;
+
+    LocationFilter(double minDistanceM, double maxSpeedMps) {
+        this.minDistanceM = minDistanceM;
+        this.maxSpeedMps = maxSpeedMps;
+    }
+
+    /**
+     * Feeds one fix; timeMs must come from a monotonic clock. speedMps is NaN when unknown.
+     * Returns true when the smoothed position should be emitted.
+     */
+    boolean offer(double lat, double lng, double accuracyM, double speedMps, long timeMs) {
+        double accuracy = Math.max(1, accuracyM);
+        if (variance < 0) {
+            reset(lat, lng, accuracy, timeMs);
+            return gate();
+        }
+        if (timeMs < this.timeMs) {
+            // Late delivery of an older fix
+            return false;
+        }
+
+        double seconds = (timeMs - this.timeMs) / 1000.0;
+        double reach = maxSpeedMps * seconds + accuracy + Math.sqrt(variance);
+        if (distanceMeters(latitude, longitude, lat, lng) > reach) {
+            if (++outliers < MAX_CONSECUTIVE_OUTLIERS) {
+                return false;
+            }
+            // Several fixes in a row disagree with the estimate: the estimate is what's wrong
+            reset(lat, lng, accuracy, timeMs);
+            return gate();
+        }
+        outliers = 0;
+
+        double noise = Double.isNaN(speedMps) ? MIN_PROCESS_NOISE : Math.max(MIN_PROCESS_NOISE, speedMps);
+        variance += seconds * noise * noise;
+        this.timeMs = timeMs;
+        double gain = variance / (variance + accuracy * accuracy);
+        latitude += gain * (lat - latitude);
+        longitude += gain * (lng - longitude);
+        variance *= 1 - gain;
+        return gate();
+    }
+
+    double latitude() {
+        return latitude;
+    }
+
+    double longitude() {
+        return longitude;
+    }
+
+    /** Estimated accuracy of the smoothed position in meters. */
+    double accuracy() {
+        return Math.sqrt(Math.max(0, variance));
+    }
+
+    /** Forgets the estimate and the last emitted position, e.g. after tracking was paused. */
+    void reset() {
+        variance = -1;
+        outliers = 0;
+        emitted = false;
+    }
+
+    static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double dPhi = phi2 - phi1;
+        double dLambda = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dPhi / 2) * Math.sin(dPhi / 2)
+                + Math.cos(phi1) * Math.cos(phi2) * Math.sin(dLambda / 2) * Math.sin(dLambda / 2);
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void reset(double lat, double lng, double accuracy, long timeMs) {
+        latitude = lat;
+        longitude = lng;
+        variance = accuracy * accuracy;
+        this.timeMs = timeMs;
+        outliers = 0;
+    }
+
+    private boolean gate() {
+        if (emitted && distanceMeters(emittedLatitude, emittedLongitude, latitude, longitude) < minDistanceM) {
+            return false;
+        }
+        emitted = true;
+        emittedLatitude = latitude;
+        emittedLongitude = longitude;
+        return true;
+    }
+}
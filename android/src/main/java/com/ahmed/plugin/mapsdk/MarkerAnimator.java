@@ -0,0 +1,181 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Moves markers towards target positions at a constant speed, all of them from one frame
+ * callback. In-flight animations live in parallel primitive arrays, so stepping a frame
+ * allocates nothing. A new target for a marker that is still moving starts from where the
+ * marker is now instead of queueing behind the old target. Longitudes take the short way
+ * across the antimeridian. Generic over the marker type so it can be tested without a
+ * GoogleMap. Not thread-safe — the plugin only touches it from the UI thread.
+ */
+final class MarkerAnimator<T> {
+
+    /** Receives the interpolated positions; returning false drops the animation (marker gone). */
+    interface Sink<T> {
+        boolean apply(String id, T marker, double latitude, double longitude);
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private Object[] markers = new Object[INITIAL_CAPACITY];
+    private double[] fromLat = new double[INITIAL_CAPACITY];
+    private double[] fromLng = new double[INITIAL_CAPACITY];
+    private double[] toLat = new double[INITIAL_CAPACITY];
+    private double[] toLng = new double[INITIAL_CAPACITY];
+    // Last position handed to the sink, where a retargeted animation starts from
+    private double[] currentLat = new double[INITIAL_CAPACITY];
+    private double[] currentLng = new double[INITIAL_CAPACITY];
+    private long[] startNanos = new long[INITIAL_CAPACITY];
+    private long[] durationNanos = new long[INITIAL_CAPACITY];
+    private int count = 0;
+
+    /**
+     * Starts moving the marker to (latitude, longitude) over durationMs. startLat and startLng
+     * are the marker's position, used unless it is already being animated.
+     */
+    void animate(String id, T marker, double startLat, double startLng,
+                 double latitude, double longitude, long durationMs, long nowNanos) {
+        Integer existing = slotById.get(id);
+        int slot;
+        if (existing != null && markers[existing] == marker) {
+            slot = existing;
+            fromLat[slot] = currentLat[slot];
+            fromLng[slot] = currentLng[slot];
+        } else {
+            if (existing != null) {
+                // Same id, different marker object: the marker was recreated
+                removeSlot(existing);
+            }
+            slot = count++;
+            ensureCapacity(count);
+            ids[slot] = id;
+            markers[slot] = marker;
+            slotById.put(id, slot);
+            fromLat[slot] = startLat;
+            fromLng[slot] = startLng;
+            currentLat[slot] = startLat;
+            currentLng[slot] = startLng;
+        }
+        toLat[slot] = latitude;
+        toLng[slot] = longitude;
+        startNanos[slot] = nowNanos;
+        durationNanos[slot] = Math.max(0, durationMs) * 1_000_000L;
+    }
+
+    /** Advances every animation to nowNanos and returns how many are still running. */
+    @SuppressWarnings("unchecked")
+    int step(long nowNanos, Sink<T> sink) {
+        int slot = 0;
+        while (slot < count) {
+            long duration = durationNanos[slot];
+            double t = duration <= 0 ? 1 : Math.max(0, Math.min(1, (nowNanos - startNanos[slot]) / (double) duration));
+            double lat = fromLat[slot] + (toLat[slot] - fromLat[slot]) * t;
+            double lng = wrapLongitude(fromLng[slot] + longitudeDelta(fromLng[slot], toLng[slot]) * t);
+            if (t >= 1) {
+                lat = toLat[slot];
+                lng = toLng[slot];
+            }
+            currentLat[slot] = lat;
+            currentLng[slot] = lng;
+
+            boolean alive = sink.apply(ids[slot], (T) markers[slot], lat, lng);
+            if (!alive || t >= 1) {
+                // The last slot moves into this one, so don't advance
+                removeSlot(slot);
+            } else {
+                slot++;
+            }
+        }
+        return count;
+    }
+
+    /** Stops the marker where it is. */
+    void cancel(String id) {
+        Integer slot = slotById.get(id);
+        if (slot != null) {
+            removeSlot(slot);
+        }
+    }
+
+    boolean isAnimating(String id) {
+        return slotById.containsKey(id);
+    }
+
+    int size() {
+        return count;
+    }
+
+    void clear() {
+        for (int i = 0; i < count; i++) {
+            ids[i] = null;
+            markers[i] = null;
+        }
+        slotById.clear();
+        count = 0;
+    }
+
+    // Swap-remove: the last slot takes the freed one's place
+    private void removeSlot(int slot) {
+        slotById.remove(ids[slot]);
+        int last = --count;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            markers[slot] = markers[last];
+            fromLat[slot] = fromLat[last];
+            fromLng[slot] = fromLng[last];
+            toLat[slot] = toLat[last];
+            toLng[slot] = toLng[last];
+            currentLat[slot] = currentLat[last];
+            currentLng[slot] = currentLng[last];
+            startNanos[slot] = startNanos[last];
+            durationNanos[slot] = durationNanos[last];
+            slotById.put(ids[slot], slot);
+        }
+        ids[last] = null;
+        markers[last] = null;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(size, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        markers = Arrays.copyOf(markers, capacity);
+        fromLat = Arrays.copyOf(fromLat, capacity);
+        fromLng = Arrays.copyOf(fromLng, capacity);
+        toLat = Arrays.copyOf(toLat, capacity);
+        toLng = Arrays.copyOf(toLng, capacity);
+        currentLat = Arrays.copyOf(currentLat, capacity);
+        currentLng = Arrays.copyOf(currentLng, capacity);
+        startNanos = Arrays.copyOf(startNanos, capacity);
+        durationNanos = Arrays.copyOf(durationNanos, capacity);
+    }
+
+    // Signed difference in (-180, 180], the short way round
+    private static double longitudeDelta(double from, double to) {
+        double delta = (to - from) % 360;
+        if (delta > 180) {
+            delta -= 360;
+        } else if (delta <= -180) {
+            delta += 360;
+        }
+        return delta;
+    }
+
+    private static double wrapLongitude(double longitude) {
+        if (longitude > 180) {
+            return longitude - 360;
+        }
+        if (longitude <= -180) {
+            return longitude + 360;
+        }
+        return longitude;
+    }
+}
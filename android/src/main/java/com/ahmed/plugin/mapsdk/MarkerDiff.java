@@ -0,0 +1,102 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Minimal set of operations that turns the keyed markers in a registry into a desired set.
+ * Markers without a client key are left alone. Pure Java so it can be tested on the JVM.
+ */
+final class MarkerDiff {
+
+    /** An existing marker whose spec changed; the flags say which properties to touch. */
+    static final class Update {
+        final String markerId;
+        final MarkerSpec spec;
+        final boolean position;
+        final boolean icon;
+        final boolean zIndex;
+        final boolean title;
+        final boolean draggable;
+
+        Update(String markerId, MarkerSpec spec, boolean position, boolean icon,
+               boolean zIndex, boolean title, boolean draggable) {
+            this.markerId = markerId;
+            this.spec = spec;
+            this.position = position;
+            this.icon = icon;
+            this.zIndex = zIndex;
+            this.title = title;
+            this.draggable = draggable;
+        }
+    }
+
+    final List<MarkerSpec> added = new ArrayList<>();
+    final List<Update> updated = new ArrayList<>();
+    // Native marker ids to remove
+    final List<String> removed = new ArrayList<>();
+    int unchanged = 0;
+
+    private MarkerDiff() {}
+
+    /**
+     * @throws IllegalArgumentException if a desired spec has no id or an id is used twice
+     */
+    static <T> MarkerDiff compute(MarkerRegistry<T> registry, List<MarkerSpec> desired) {
+        MarkerDiff diff = new MarkerDiff();
+        Set<String> desiredKeys = new HashSet<>(desired.size() * 2);
+
+        for (MarkerSpec spec : desired) {
+            if (spec.id == null) {
+                throw new IllegalArgumentException("every marker needs an id");
+            }
+            if (!desiredKeys.add(spec.id)) {
+                throw new IllegalArgumentException("duplicate marker id: " + spec.id);
+            }
+
+            MarkerRegistry.Entry<T> entry = registry.entryByKey(spec.id);
+            if (entry == null) {
+                diff.added.add(spec);
+                continue;
+            }
+
+            MarkerSpec current = entry.spec;
+            boolean position = !current.samePosition(spec);
+            boolean icon = !current.sameIcon(spec);
+            boolean zIndex = !Objects.equals(current.zIndex, spec.zIndex);
+            boolean title = !current.title.equals(spec.title);
+            boolean draggable = current.draggable != spec.draggable;
+            if (position || icon || zIndex || title || draggable) {
+                diff.updated.add(new Update(entry.id, spec, position, icon, zIndex, title, draggable));
+            } else {
+                diff.unchanged++;
+            }
+        }
+
+        for (MarkerRegistry.Entry<T> entry : registry.keyedEntries()) {
+            if (!desiredKeys.contains(entry.key())) {
+                diff.removed.add(entry.id);
+            }
+        }
+        return diff;
+    }
+
+    /** Specs that need a custom icon built before the diff can be applied. */
+    List<MarkerSpec> specsNeedingIcons() {
+        List<MarkerSpec> specs = new ArrayList<>();
+        for (MarkerSpec spec : added) {
+            if (spec.isCustom()) {
+                specs.add(spec);
+            }
+        }
+        for (Update update : updated) {
+            if (update.icon && update.spec.isCustom()) {
+                specs.add(update.spec);
+            }
+        }
+        return specs;
+    }
+}
@@ -0,0 +1,66 @@
+package com.ahmed.plugin.mapsdk;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Base64;
+
+/**
+ * Decodes base64 data-URI marker icons straight to (roughly) their on-screen size.
+ * Meant to run on a background thread — nothing here touches the map.
+ */
+final class MarkerIconDecoder {
+
+    private MarkerIconDecoder() {}
+
+    /**
+     * Returns a bitmap exactly targetWidthPx wide (height follows the aspect ratio),
+     * or null when the payload is not a decodable image.
+     */
+    static Bitmap decodeDataUri(String dataUri, int targetWidthPx) {
+        String base64Data = dataUri.substring(dataUri.indexOf(",") + 1);
+        byte[] decodedBytes = Base64.decode(base64Data, Base64.DEFAULT);
+
+        // Read the dimensions only, so a 1024px PNG never gets decoded at full size
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(decodedBytes, 0, decodedBytes.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        int srcWidth = options.outWidth;
+        int srcHeight = options.outHeight;
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = calculateInSampleSize(srcWidth, targetWidthPx);
+        Bitmap sampled = BitmapFactory.decodeByteArray(decodedBytes, 0, decodedBytes.length, options);
+        if (sampled == null) {
+            return null;
+        }
+
+        int targetHeightPx = Math.max(1, Math.round(targetWidthPx * ((float) srcHeight / srcWidth)));
+        if (sampled.getWidth() == targetWidthPx && sampled.getHeight() == targetHeightPx) {
+            return sampled;
+        }
+
+        Bitmap scaled = Bitmap.createScaledBitmap(sampled, targetWidthPx, targetHeightPx, true);
+        if (scaled != sampled) {
+            sampled.recycle();
+        }
+        return scaled;
+    }
+
+    /**
+     * Largest power of two that keeps the sampled width at or above the target,
+     * so the final scale step only ever shrinks by less than 2x.
+     */
+    static int calculateInSampleSize(int srcWidth, int targetWidth) {
+        int sampleSize = 1;
+        if (targetWidth <= 0) {
+            return sampleSize;
+        }
+        while (srcWidth / (sampleSize * 2) >= targetWidth) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+}
@@ -0,0 +1,124 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.BitSet;
+
+/**
+ * Point quadtree over latitude/longitude. Stores only indices into the position arrays it
+ * was built from, so 50k markers cost a few hundred kilobytes. Built once, then read-only —
+ * safe to build on a background thread and query from the UI thread.
+ */
+final class MarkerQuadTree {
+
+    private static final int LEAF_CAPACITY = 32;
+    private static final int MAX_DEPTH = 18;
+
+    private static final class Node {
+        final double south;
+        final double west;
+        final double north;
+        final double east;
+        final int depth;
+        int[] items = new int[8];
+        int size;
+        Node[] children;
+
+        Node(double south, double west, double north, double east, int depth) {
+            this.south = south;
+            this.west = west;
+            this.north = north;
+            this.east = east;
+            this.depth = depth;
+        }
+    }
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final Node root = new Node(-90, -180, 90, 180, 0);
+
+    MarkerQuadTree(double[] latitudes, double[] longitudes, int count) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        for (int i = 0; i < count; i++) {
+            insert(root, i);
+        }
+    }
+
+    /**
+     * Sets the bit of every point inside the box (edges included).
+     * A west greater than east is treated as a box crossing the antimeridian.
+     */
+    void query(double south, double west, double north, double east, BitSet out) {
+        if (west > east) {
+            query(root, south, west, north, 180, out);
+            query(root, south, -180, north, east, out);
+        } else {
+            query(root, south, west, north, east, out);
+        }
+    }
+
+    private void insert(Node node, int index) {
+        while (node.children != null) {
+            node = node.children[quadrant(node, latitudes[index], longitudes[index])];
+        }
+        append(node, index);
+        if (node.size > LEAF_CAPACITY && node.depth < MAX_DEPTH) {
+            split(node);
+        }
+    }
+
+    private void split(Node node) {
+        double midLat = (node.south + node.north) / 2;
+        double midLng = (node.west + node.east) / 2;
+        int depth = node.depth + 1;
+        node.children = new Node[] {
+                new Node(node.south, node.west, midLat, midLng, depth),
+                new Node(node.south, midLng, midLat, node.east, depth),
+                new Node(midLat, node.west, node.north, midLng, depth),
+                new Node(midLat, midLng, node.north, node.east, depth),
+        };
+        int[] items = node.items;
+        int size = node.size;
+        node.items = null;
+        node.size = 0;
+        for (int i = 0; i < size; i++) {
+            int index = items[i];
+            insert(node.children[quadrant(node, latitudes[index], longitudes[index])], index);
+        }
+    }
+
+    private static int quadrant(Node node, double lat, double lng) {
+        int q = 0;
+        if (lng >= (node.west + node.east) / 2) q |= 1;
+        if (lat >= (node.south + node.north) / 2) q |= 2;
+        return q;
+    }
+
+    private static void append(Node node, int index) {
+        if (node.size == node.items.length) {
+            int[] grown = new int[node.size * 2];
+            System.arraycopy(node.items, 0, grown, 0, node.size);
+            node.items = grown;
+        }
+        node.items[node.size++] = index;
+    }
+
+    private void query(Node node, double south, double west, double north, double east, BitSet out) {
+        if (node.north < south || node.south > north || node.east < west || node.west > east) {
+            return;
+        }
+        boolean contained = node.south >= south && node.north <= north && node.west >= west && node.east <= east;
+        if (node.children != null) {
+            for (Node child : node.children) {
+                query(child, south, west, north, east, out);
+            }
+            return;
+        }
+        for (int i = 0; i < node.size; i++) {
+            int index = node.items[i];
+            if (contained || (latitudes[index] >= south && latitudes[index] <= north
+                    && longitudes[index] >= west && longitudes[index] <= east)) {
+                out.set(index);
+            }
+        }
+    }
+}
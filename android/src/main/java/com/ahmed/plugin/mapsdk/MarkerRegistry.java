@@ -0,0 +1,260 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the markers currently on the map, by marker id, by title and by the optional
+ * client-supplied key. Insert, lookup and removal by id or key are O(1); removal by title
+ * is O(k) in the number of markers removed. Every marker also gets a small int handle for
+ * the packed position format, looked up by array index without boxing; a slot's generation
+ * is part of the handle so handles of removed markers never match a newer one. Generic over
+ * the marker type so it can be tested without a GoogleMap. Not thread-safe — the plugin only
+ * touches it from the UI thread.
+ */
+final class MarkerRegistry<T> {
+
+    static final class Entry<T> {
+        final String id;
+        final T marker;
+        // The spec the marker was last created or updated from
+        final MarkerSpec spec;
+        final float zIndex;
+        // Whether the marker takes part in automatic z-index stacking
+        final boolean stacked;
+        // Stays the same when the entry is replaced by an in-place update
+        final int handle;
+
+        Entry(String id, T marker, MarkerSpec spec, float zIndex, boolean stacked, int handle) {
+            this.id = id;
+            this.marker = marker;
+            this.spec = spec;
+            this.zIndex = zIndex;
+            this.stacked = stacked;
+            this.handle = handle;
+        }
+
+        String title() {
+            return spec.title;
+        }
+
+        String key() {
+            return spec.id;
+        }
+    }
+
+    private final LinkedHashMap<String, Entry<T>> byId = new LinkedHashMap<>();
+    private final Map<String, LinkedHashMap<String, Entry<T>>> byTitle = new HashMap<>();
+    private final Map<String, Entry<T>> byKey = new HashMap<>();
+    private final ZIndexTracker zIndexes = new ZIndexTracker();
+
+    // Handle = generation << SLOT_BITS | slot. Generations start at 1, so 0 is never a handle
+    private static final int SLOT_BITS = 20;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int MAX_GENERATION = (1 << (31 - SLOT_BITS)) - 1;
+    private final List<Entry<T>> bySlot = new ArrayList<>();
+    private int[] slotGenerations = new int[16];
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    // Bumped on every change so derived indexes (clustering) know when to rebuild
+    private int modCount = 0;
+
+    /** Adds the marker, or replaces the entry with the same id (used for in-place updates). */
+    void add(String id, T marker, MarkerSpec spec, float zIndex, boolean stacked) {
+        modCount++;
+        Entry<T> previous = byId.get(id);
+        int handle = previous != null ? previous.handle : acquireHandle();
+        Entry<T> entry = new Entry<>(id, marker, spec, zIndex, stacked, handle);
+        byId.put(id, entry);
+        bySlot.set(handle & SLOT_MASK, entry);
+        if (previous != null) {
+            unindex(previous);
+        }
+        byTitle.computeIfAbsent(entry.title(), k -> new LinkedHashMap<>()).put(id, entry);
+        if (entry.key() != null) {
+            byKey.put(entry.key(), entry);
+        }
+        if (stacked) {
+            zIndexes.add(zIndex);
+        }
+    }
+
+    T get(String id) {
+        Entry<T> entry = byId.get(id);
+        return entry != null ? entry.marker : null;
+    }
+
+    Entry<T> entry(String id) {
+        return byId.get(id);
+    }
+
+    Entry<T> entryByKey(String key) {
+        return byKey.get(key);
+    }
+
+    /** The entry with this handle, or null if the marker has been removed. */
+    Entry<T> entryByHandle(int handle) {
+        int slot = handle & SLOT_MASK;
+        if (handle <= 0 || slot >= bySlot.size()) {
+            return null;
+        }
+        Entry<T> entry = bySlot.get(slot);
+        return entry != null && entry.handle == handle ? entry : null;
+    }
+
+    boolean contains(String id) {
+        return byId.containsKey(id);
+    }
+
+    /** Returns the removed marker, or null if the id is unknown. */
+    T remove(String id) {
+        Entry<T> entry = byId.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        modCount++;
+        unindex(entry);
+        releaseHandle(entry);
+        return entry.marker;
+    }
+
+    List<T> removeByTitle(String title) {
+        LinkedHashMap<String, Entry<T>> bucket = byTitle.remove(title);
+        if (bucket == null) {
+            return Collections.emptyList();
+        }
+        modCount++;
+
+        List<T> removed = new ArrayList<>(bucket.size());
+        for (Entry<T> entry : bucket.values()) {
+            byId.remove(entry.id);
+            unindexKeyAndZIndex(entry);
+            releaseHandle(entry);
+            removed.add(entry.marker);
+        }
+        return removed;
+    }
+
+    /** Removes every marker whose title is not in titlesToKeep. Only visits the titles being dropped. */
+    List<T> removeAllExcept(Set<String> titlesToKeep) {
+        List<T> removed = new ArrayList<>();
+        Iterator<Map.Entry<String, LinkedHashMap<String, Entry<T>>>> it = byTitle.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, LinkedHashMap<String, Entry<T>>> bucket = it.next();
+            if (titlesToKeep.contains(bucket.getKey())) {
+                continue;
+            }
+            modCount++;
+            for (Entry<T> entry : bucket.getValue().values()) {
+                byId.remove(entry.id);
+                unindexKeyAndZIndex(entry);
+                releaseHandle(entry);
+                removed.add(entry.marker);
+            }
+            it.remove();
+        }
+        return removed;
+    }
+
+    List<T> clear() {
+        List<T> removed = new ArrayList<>(byId.size());
+        for (Entry<T> entry : byId.values()) {
+            removed.add(entry.marker);
+            releaseHandle(entry);
+        }
+        modCount++;
+        byId.clear();
+        byTitle.clear();
+        byKey.clear();
+        zIndexes.clear();
+        return removed;
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    int countByTitle(String title) {
+        LinkedHashMap<String, Entry<T>> bucket = byTitle.get(title);
+        return bucket != null ? bucket.size() : 0;
+    }
+
+    /** Entries in insertion order. Read-only view. */
+    Collection<Entry<T>> entries() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+
+    /** Entries that carry a client-supplied key. Read-only view. */
+    Collection<Entry<T>> keyedEntries() {
+        return Collections.unmodifiableCollection(byKey.values());
+    }
+
+    int modCount() {
+        return modCount;
+    }
+
+    /** The z-index a newly stacked marker should get to appear above all stacked ones. */
+    float nextZIndex() {
+        return zIndexes.next();
+    }
+
+    private int acquireHandle() {
+        Integer free = freeSlots.poll();
+        int slot;
+        if (free != null) {
+            slot = free;
+        } else {
+            slot = bySlot.size();
+            if (slot > SLOT_MASK) {
+                throw new IllegalStateException("Out of marker handles");
+            }
+            bySlot.add(null);
+            if (slot >= slotGenerations.length) {
+                slotGenerations = Arrays.copyOf(slotGenerations, slotGenerations.length * 2);
+            }
+        }
+        int generation = slotGenerations[slot] + 1;
+        slotGenerations[slot] = generation;
+        return generation << SLOT_BITS | slot;
+    }
+
+    private void releaseHandle(Entry<T> entry) {
+        int slot = entry.handle & SLOT_MASK;
+        bySlot.set(slot, null);
+        // A slot that used its last generation is retired for good instead of wrapping
+        // around, so an old handle can never match a later marker
+        if (slotGenerations[slot] < MAX_GENERATION) {
+            freeSlots.push(slot);
+        }
+    }
+
+    private void unindex(Entry<T> entry) {
+        LinkedHashMap<String, Entry<T>> bucket = byTitle.get(entry.title());
+        if (bucket != null && bucket.get(entry.id) == entry) {
+            bucket.remove(entry.id);
+            if (bucket.isEmpty()) {
+                byTitle.remove(entry.title());
+            }
+        }
+        unindexKeyAndZIndex(entry);
+    }
+
+    private void unindexKeyAndZIndex(Entry<T> entry) {
+        // Only drop the key if it still points at this entry and not at a replacement
+        if (entry.key() != null && byKey.get(entry.key()) == entry) {
+            byKey.remove(entry.key());
+        }
+        if (entry.stacked) {
+            zIndexes.remove(entry.zIndex);
+        }
+    }
+}
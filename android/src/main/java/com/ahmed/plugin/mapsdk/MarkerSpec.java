@@ -0,0 +1,105 @@
+package com.ahmed.plugin.mapsdk;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Decoded description of a single marker, as accepted by addMarker, addCustomMarker and addMarkers.
+ * Parsing happens off the UI thread so the main thread only has to call GoogleMap.addMarker.
+ */
+final class MarkerSpec {
+
+    // Optional client-supplied stable key, required by setMarkers
+    final String id;
+    final double latitude;
+    final double longitude;
+    final String title;
+    final boolean draggable;
+    // Explicit z-index; null means the marker is stacked automatically
+    final Float zIndex;
+
+    // Custom marker styling — either a base64 data URI or three colors plus an MDI glyph
+    final String iconImage;
+    final String[] colors;
+    final String mdiIcon;
+
+    MarkerSpec(String id, double latitude, double longitude, String title, boolean draggable, Float zIndex,
+               String iconImage, String[] colors, String mdiIcon) {
+        this.id = id;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.title = title != null ? title : "";
+        this.draggable = draggable;
+        this.zIndex = zIndex;
+        this.iconImage = iconImage;
+        this.colors = colors;
+        this.mdiIcon = mdiIcon;
+    }
+
+    boolean isCustom() {
+        return iconImage != null || colors != null;
+    }
+
+    boolean hasImageIcon() {
+        return iconImage != null && iconImage.startsWith("data:image");
+    }
+
+    MarkerSpec withPosition(double latitude, double longitude) {
+        return new MarkerSpec(id, latitude, longitude, title, draggable, zIndex, iconImage, colors, mdiIcon);
+    }
+
+    boolean samePosition(MarkerSpec other) {
+        return Double.compare(latitude, other.latitude) == 0 && Double.compare(longitude, other.longitude) == 0;
+    }
+
+    boolean sameIcon(MarkerSpec other) {
+        if (isCustom() != other.isCustom()) {
+            return false;
+        }
+        if (!isCustom()) {
+            return true;
+        }
+        return Objects.equals(iconImage, other.iconImage)
+                && Arrays.equals(colors, other.colors)
+                && Objects.equals(mdiIcon, other.mdiIcon);
+    }
+
+    /**
+     * Accepts both the flat addMarker shape ({ latitude, longitude }) and the
+     * addCustomMarker shape ({ position: { latitude, longitude } }).
+     */
+    static MarkerSpec fromJSON(JSONObject obj) throws JSONException {
+        double lat;
+        double lng;
+        JSONObject position = obj.optJSONObject("position");
+        if (position != null) {
+            lat = position.getDouble("latitude");
+            lng = position.getDouble("longitude");
+        } else {
+            lat = obj.optDouble("latitude", 0.0);
+            lng = obj.optDouble("longitude", 0.0);
+        }
+
+        String[] colors = null;
+        JSONArray colorArray = obj.optJSONArray("colors");
+        if (colorArray != null) {
+            colors = new String[] { colorArray.getString(0), colorArray.getString(1), colorArray.getString(2) };
+        }
+
+        return new MarkerSpec(
+                obj.has("id") && !obj.isNull("id") ? obj.getString("id") : null,
+                lat,
+                lng,
+                obj.optString("title", ""),
+                obj.optBoolean("draggable", false),
+                obj.has("zIndex") && !obj.isNull("zIndex") ? (float) obj.getDouble("zIndex") : null,
+                obj.has("iconImage") ? obj.getString("iconImage") : null,
+                colors,
+                obj.optString("mdiIcon", "default")
+        );
+    }
+}
@@ -0,0 +1,44 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.Objects;
+
+/**
+ * Cache key for a generated MDI marker: the three colors, the glyph and the screen density.
+ */
+final class MarkerStyleKey {
+
+    private final String color1;
+    private final String color2;
+    private final String color3;
+    private final String icon;
+    private final float density;
+    private final int hash;
+
+    MarkerStyleKey(String color1, String color2, String color3, String icon, float density) {
+        this.color1 = color1;
+        this.color2 = color2;
+        this.color3 = color3;
+        this.icon = icon;
+        this.density = density;
+        // Keys are hashed on every lookup, so compute it once up front
+        this.hash = Objects.hash(color1, color2, color3, icon, density);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MarkerStyleKey)) return false;
+        MarkerStyleKey other = (MarkerStyleKey) o;
+        return hash == other.hash
+                && Float.compare(density, other.density) == 0
+                && Objects.equals(color1, other.color1)
+                && Objects.equals(color2, other.color2)
+                && Objects.equals(color3, other.color3)
+                && Objects.equals(icon, other.icon);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,52 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Decodes the packed position format used by updateMarkerPositions. For n markers the
+ * buffer holds, little-endian, n (latitude, longitude) Float64 pairs followed by n Int32
+ * marker handles — doubles first so a JS Float64Array view over the same ArrayBuffer needs
+ * no padding. The values are copied out through typed ByteBuffer views in two bulk gets,
+ * without creating an object per point.
+ */
+final class PackedPositions {
+
+    static final int BYTES_PER_POSITION = 2 * Double.BYTES + Integer.BYTES;
+
+    final int count;
+    final int[] handles;
+    // Interleaved latitude, longitude
+    final double[] coordinates;
+
+    private PackedPositions(int count, int[] handles, double[] coordinates) {
+        this.count = count;
+        this.handles = handles;
+        this.coordinates = coordinates;
+    }
+
+    /** Throws IllegalArgumentException if the length doesn't match the format or a latitude is out of range. */
+    static PackedPositions decode(byte[] data) {
+        if (data.length % BYTES_PER_POSITION != 0) {
+            throw new IllegalArgumentException("Packed data length " + data.length
+                    + " is not a multiple of " + BYTES_PER_POSITION);
+        }
+        int count = data.length / BYTES_PER_POSITION;
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+
+        double[] coordinates = new double[2 * count];
+        buffer.asDoubleBuffer().get(coordinates);
+        buffer.position(2 * count * Double.BYTES);
+        int[] handles = new int[count];
+        buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(handles);
+
+        for (int i = 0; i < count; i++) {
+            double latitude = coordinates[2 * i];
+            double longitude = coordinates[2 * i + 1];
+            if (!(latitude >= -90 && latitude <= 90) || Double.isNaN(longitude) || Double.isInfinite(longitude)) {
+                throw new IllegalArgumentException("Invalid position at index " + i);
+            }
+        }
+        return new PackedPositions(count, handles, coordinates);
+    }
+}
@@ -0,0 +1,245 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency histograms per plugin method and phase, main-thread queue depth and per-event
+ * emission counts. Every entry point checks a single volatile flag first, so a disabled
+ * monitor costs one read per call. The method being timed is tracked per thread, so phases
+ * recorded deep inside a task (bitmap generation, decoding) land on the method that
+ * queued the task. Thread-safe.
+ */
+final class PerformanceMonitor {
+
+    enum Phase {
+        // Parsing call options into specs
+        DECODE("decode"),
+        // From posting to the main thread / a worker until the task starts
+        DISPATCH("dispatch"),
+        // Time spent on the main thread, mostly GoogleMap calls
+        MAIN_THREAD("mainThread"),
+        // Time spent on a worker thread
+        BACKGROUND("background"),
+        // Marker icon drawing and decoding
+        BITMAP("bitmap"),
+        // Emitting events: handing the payload to the WebView, where the bridge serializes
+        // it. Callers build single events before the timer starts, so only onEventBatch
+        // includes JSON building (the batch envelope). Recorded by recordEmission against
+        // the emitting method, or the event name outside of one
+        SERIALIZE("serialize");
+
+        final String key;
+
+        Phase(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Log2-bucketed histogram of durations in microseconds. Percentiles are reported as the
+     * upper bound of the bucket they fall in, so they are accurate to within 2x.
+     */
+    static final class Histogram {
+        private static final int BUCKETS = 32;
+        private final long[] buckets = new long[BUCKETS];
+        private long count;
+        private long sumMicros;
+        private long maxMicros;
+
+        synchronized void record(long micros) {
+            micros = Math.max(0, micros);
+            int bucket = micros == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets[bucket]++;
+            count++;
+            sumMicros += micros;
+            maxMicros = Math.max(maxMicros, micros);
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized double meanMs() {
+            return count == 0 ? 0 : sumMicros / 1000.0 / count;
+        }
+
+        synchronized double maxMs() {
+            return maxMicros / 1000.0;
+        }
+
+        /** @param quantile between 0 and 1 */
+        synchronized double percentileMs(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    long upperMicros = i == 0 ? 0 : (1L << i) - 1;
+                    return Math.min(upperMicros, maxMicros) / 1000.0;
+                }
+            }
+            return maxMs();
+        }
+    }
+
+    private volatile boolean enabled = false;
+    private long sinceMs;
+    private final Map<String, EnumMap<Phase, Histogram>> methods = new HashMap<>();
+    private final Map<String, Histogram> events = new HashMap<>();
+    // Per event name, occurrences dropped by batching because a later one replaced them
+    private final Map<String, Long> coalesced = new HashMap<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private volatile int maxQueueDepth = 0;
+    private final ThreadLocal<String> currentMethod = new ThreadLocal<>();
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    synchronized void setEnabled(boolean enabled, long nowMs) {
+        if (enabled && !this.enabled) {
+            reset(nowMs);
+        }
+        this.enabled = enabled;
+    }
+
+    synchronized void reset(long nowMs) {
+        methods.clear();
+        events.clear();
+        coalesced.clear();
+        maxQueueDepth = queueDepth.get();
+        sinceMs = nowMs;
+    }
+
+    synchronized long sinceMs() {
+        return sinceMs;
+    }
+
+    /** Returns a start timestamp, or 0 when disabled so stop() does nothing. */
+    long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /** Records the time since start() against the method currently running on this thread. */
+    void stop(Phase phase, long startNanos) {
+        if (startNanos == 0 || !enabled) {
+            return;
+        }
+        String method = currentMethod.get();
+        record(method != null ? method : "unattributed", phase, System.nanoTime() - startNanos);
+    }
+
+    void record(String method, Phase phase, long nanos) {
+        histogram(method, phase).record(nanos / 1000);
+    }
+
+    void recordEvent(String eventName, long nanos) {
+        Histogram histogram;
+        synchronized (this) {
+            histogram = events.computeIfAbsent(eventName, k -> new Histogram());
+        }
+        histogram.record(nanos / 1000);
+    }
+
+    /**
+     * Records an emitted event: its per-name count and duration, and SERIALIZE against the
+     * method running on this thread. Events raised by map callbacks run outside any plugin
+     * method; those land under the event name.
+     */
+    void recordEmission(String eventName, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        recordEvent(eventName, nanos);
+        String method = currentMethod.get();
+        record(method != null ? method : eventName, Phase.SERIALIZE, nanos);
+    }
+
+    /**
+     * Records one event delivered inside a batch: its per-name count, with nanos as its share
+     * of the batch's emission, and the occurrences coalesced into it. SERIALIZE is recorded
+     * once for the whole batch by recordEmission.
+     */
+    void recordBatchedEvent(String eventName, int coalescedCount, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        recordEvent(eventName, nanos);
+        if (coalescedCount > 0) {
+            synchronized (this) {
+                coalesced.merge(eventName, (long) coalescedCount, Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Wraps a task about to be posted so that its queue wait and run time are recorded
+     * against method. Returns the task unchanged when disabled.
+     */
+    Runnable wrap(String method, Phase runPhase, boolean mainThread, Runnable task) {
+        if (!enabled) {
+            return task;
+        }
+        long postedAt = System.nanoTime();
+        if (mainThread) {
+            int depth = queueDepth.incrementAndGet();
+            if (depth > maxQueueDepth) {
+                maxQueueDepth = depth;
+            }
+        }
+        return () -> {
+            long startedAt = System.nanoTime();
+            if (mainThread) {
+                queueDepth.decrementAndGet();
+            }
+            String outer = currentMethod.get();
+            currentMethod.set(method);
+            try {
+                task.run();
+            } finally {
+                currentMethod.set(outer);
+                record(method, Phase.DISPATCH, startedAt - postedAt);
+                record(method, runPhase, System.nanoTime() - startedAt);
+            }
+        };
+    }
+
+    int queueDepth() {
+        return queueDepth.get();
+    }
+
+    int maxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /** Copy of the method histograms, sorted by method name. */
+    synchronized Map<String, Map<Phase, Histogram>> methods() {
+        Map<String, Map<Phase, Histogram>> copy = new TreeMap<>();
+        for (Map.Entry<String, EnumMap<Phase, Histogram>> entry : methods.entrySet()) {
+            copy.put(entry.getKey(), new EnumMap<>(entry.getValue()));
+        }
+        return copy;
+    }
+
+    /** Copy of the event histograms, sorted by event name. */
+    synchronized Map<String, Histogram> events() {
+        return new TreeMap<>(events);
+    }
+
+    /** Copy of the per-name coalesced counts, sorted by event name. */
+    synchronized Map<String, Long> coalesced() {
+        return new TreeMap<>(coalesced);
+    }
+
+    private synchronized Histogram histogram(String method, Phase phase) {
+        return methods.computeIfAbsent(method, k -> new EnumMap<>(Phase.class))
+                .computeIfAbsent(phase, k -> new Histogram());
+    }
+}
@@ -0,0 +1,128 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Asynchronous reverse geocoding with a timeout and an LRU of results keyed by a quantized
+ * lat/lng cell, so positions a few metres apart share one lookup. Concurrent requests for
+ * the same cell share one lookup too. Results are delivered on a background thread.
+ */
+final class ReverseGeocoder {
+
+    enum Status { OK, NOT_FOUND, TIMEOUT, ERROR }
+
+    interface Callback {
+        /** address is null unless status is OK. */
+        void onResult(Status status, String address, boolean cached);
+    }
+
+    // Cached value for positions the geocoder has no address for
+    private static final String NO_ADDRESS = "";
+
+    private final AddressLookup lookup;
+    private final ExecutorService lookupExecutor;
+    private final ScheduledExecutorService timer;
+    private final long timeoutMs;
+    private final double cellDegrees;
+    private final BoundedLruCache<Long, String> cache;
+    // Guarded by itself
+    private final Map<Long, List<Callback>> inFlight = new HashMap<>();
+
+    /**
+     * @param cellDegrees edge of a cache cell; 0.0001 is about 11m at the equator
+     * @param maxEntries  cached cells
+     */
+    ReverseGeocoder(AddressLookup lookup, ExecutorService lookupExecutor, ScheduledExecutorService timer,
+                    long timeoutMs, double cellDegrees, int maxEntries) {
+        this.lookup = lookup;
+        this.lookupExecutor = lookupExecutor;
+        this.timer = timer;
+        this.timeoutMs = timeoutMs;
+        this.cellDegrees = cellDegrees;
+        this.cache = new BoundedLruCache<>(maxEntries);
+    }
+
+    /** The cached address for the cell, or null if it hasn't been resolved (or has none). */
+    String cachedAddress(double latitude, double longitude) {
+        String address = cache.get(cellKey(latitude, longitude));
+        return address == null || address.isEmpty() ? null : address;
+    }
+
+    void resolve(double latitude, double longitude, Callback callback) {
+        long key = cellKey(latitude, longitude);
+        String cachedValue = cache.get(key);
+        if (cachedValue != null) {
+            deliver(callback, cachedValue, true);
+            return;
+        }
+
+        synchronized (inFlight) {
+            List<Callback> waiting = inFlight.get(key);
+            if (waiting != null) {
+                waiting.add(callback);
+                return;
+            }
+            waiting = new ArrayList<>(2);
+            waiting.add(callback);
+            inFlight.put(key, waiting);
+        }
+
+        AtomicBoolean done = new AtomicBoolean(false);
+        lookupExecutor.execute(() -> {
+            String address;
+            try {
+                address = lookup.lookup(latitude, longitude);
+            } catch (Exception e) {
+                if (done.compareAndSet(false, true)) {
+                    finish(key, Status.ERROR, null);
+                }
+                return;
+            }
+            // Even a lookup that timed out is worth caching for the next drag
+            String value = address != null ? address : NO_ADDRESS;
+            cache.put(key, value, 1);
+            if (done.compareAndSet(false, true)) {
+                finish(key, value.isEmpty() ? Status.NOT_FOUND : Status.OK, value.isEmpty() ? null : value);
+            }
+        });
+        timer.schedule(() -> {
+            if (done.compareAndSet(false, true)) {
+                finish(key, Status.TIMEOUT, null);
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void finish(long key, Status status, String address) {
+        List<Callback> waiting;
+        synchronized (inFlight) {
+            waiting = inFlight.remove(key);
+        }
+        if (waiting == null) {
+            return;
+        }
+        for (Callback callback : waiting) {
+            callback.onResult(status, address, false);
+        }
+    }
+
+    private static void deliver(Callback callback, String cachedValue, boolean cached) {
+        if (cachedValue.isEmpty()) {
+            callback.onResult(Status.NOT_FOUND, null, cached);
+        } else {
+            callback.onResult(Status.OK, cachedValue, cached);
+        }
+    }
+
+    long cellKey(double latitude, double longitude) {
+        long latCell = Math.round(latitude / cellDegrees);
+        long lngCell = Math.round(longitude / cellDegrees);
+        return (latCell << 32) | (lngCell & 0xffffffffL);
+    }
+}
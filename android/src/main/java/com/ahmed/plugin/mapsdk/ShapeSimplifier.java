@@ -0,0 +1,161 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.Arrays;
+
+/**
+ * Douglas–Peucker levels of detail for a polyline or polygon ring. A single pass over the
+ * vertices records, for each one, the largest tolerance at which Douglas–Peucker would still
+ * keep it; every zoom band is then a filter over that array instead of a separate run.
+ * Distances are measured in Web Mercator so a tolerance in pixels means the same thing at
+ * any latitude. Pure Java — build it on a background thread, nothing changes afterwards.
+ */
+final class ShapeSimplifier {
+
+    /**
+     * Each band is used below its zoom limit and simplified for that limit; at and above the
+     * last one the full geometry is used.
+     */
+    static final int[] BAND_ZOOM_LIMITS = { 5, 8, 11, 14, 17 };
+
+    private static final int TILE_SIZE = 256;
+
+    private final double[] importance;
+    private final int[][] levels;
+
+    /**
+     * @param closed ring whose first vertex is repeated as the last one; at least four
+     *               corners are kept at every level so the polygon never collapses
+     * @param toleranceDp largest error allowed, in screen dp
+     */
+    ShapeSimplifier(double[] latitudes, double[] longitudes, int count, boolean closed, double toleranceDp) {
+        double[] x = new double[count];
+        double[] y = new double[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = ClusterIndex.mercatorX(longitudes[i]);
+            y[i] = ClusterIndex.mercatorY(latitudes[i]);
+        }
+        this.importance = computeImportance(x, y, count, closed);
+
+        levels = new int[BAND_ZOOM_LIMITS.length + 1][];
+        for (int band = 0; band < BAND_ZOOM_LIMITS.length; band++) {
+            double worldSize = TILE_SIZE * Math.pow(2, BAND_ZOOM_LIMITS[band]);
+            levels[band] = keptAbove(toleranceDp / worldSize);
+        }
+        levels[BAND_ZOOM_LIMITS.length] = keptAbove(-1);
+    }
+
+    int bandCount() {
+        return levels.length;
+    }
+
+    static int band(float zoom) {
+        for (int band = 0; band < BAND_ZOOM_LIMITS.length; band++) {
+            if (zoom < BAND_ZOOM_LIMITS[band]) {
+                return band;
+            }
+        }
+        return BAND_ZOOM_LIMITS.length;
+    }
+
+    /** Indices of the vertices kept in band, in order. Shared; do not modify. */
+    int[] level(int band) {
+        return levels[band];
+    }
+
+    /** Vertices kept by Douglas–Peucker at the given tolerance, in world units (0..1). */
+    int[] simplify(double tolerance) {
+        return keptAbove(tolerance);
+    }
+
+    private int[] keptAbove(double tolerance) {
+        int kept = 0;
+        for (double value : importance) {
+            if (value > tolerance) {
+                kept++;
+            }
+        }
+        int[] indices = new int[kept];
+        int k = 0;
+        for (int i = 0; i < importance.length; i++) {
+            if (importance[i] > tolerance) {
+                indices[k++] = i;
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Douglas–Peucker splits each span at its farthest vertex while that distance exceeds the
+     * tolerance, so a vertex survives exactly when its own distance and those of every split
+     * above it do. Capping each distance by its parent's makes that a single comparison.
+     * Uses an explicit stack; routes with tens of thousands of vertices would overflow a
+     * recursive version.
+     */
+    private static double[] computeImportance(double[] x, double[] y, int count, boolean closed) {
+        double[] importance = new double[count];
+        if (count == 0) {
+            return importance;
+        }
+        importance[0] = Double.POSITIVE_INFINITY;
+        importance[count - 1] = Double.POSITIVE_INFINITY;
+
+        // Stack of spans as (first, last, depth), with the importance of the split above in caps
+        int[] spans = new int[64 * 3];
+        double[] caps = new double[64];
+        spans[0] = 0;
+        spans[1] = count - 1;
+        spans[2] = 0;
+        caps[0] = Double.POSITIVE_INFINITY;
+        int top = 1;
+
+        while (top > 0) {
+            top--;
+            int first = spans[top * 3];
+            int last = spans[top * 3 + 1];
+            int depth = spans[top * 3 + 2];
+            double cap = caps[top];
+            if (last - first < 2) {
+                continue;
+            }
+
+            int farthest = -1;
+            double maxDistance = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distance = segmentDistanceSquared(x[i], y[i], x[first], y[first], x[last], y[last]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+            // The first split of a ring is measured against a degenerate segment (first == last);
+            // it and the splits of both halves are always kept so the ring stays a polygon
+            double value = closed && depth < 2 ? Double.POSITIVE_INFINITY : Math.min(cap, Math.sqrt(maxDistance));
+            importance[farthest] = value;
+
+            if (top + 2 > caps.length) {
+                spans = Arrays.copyOf(spans, spans.length * 2);
+                caps = Arrays.copyOf(caps, caps.length * 2);
+            }
+            spans[top * 3] = first;
+            spans[top * 3 + 1] = farthest;
+            spans[top * 3 + 2] = depth + 1;
+            caps[top++] = value;
+            spans[top * 3] = farthest;
+            spans[top * 3 + 1] = last;
+            spans[top * 3 + 2] = depth + 1;
+            caps[top++] = value;
+        }
+        return importance;
+    }
+
+    private static double segmentDistanceSquared(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+}
@@ -0,0 +1,103 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Backing store for the virtualized marker layer: every spec lives here, but only the ones
+ * near the viewport are materialized as real map markers. plan() works out which markers
+ * to add and remove for a new viewport; the caller applies the plan and reports each
+ * marker it actually added or removed. Not thread-safe — build anywhere, then use from
+ * the UI thread only.
+ */
+final class VirtualMarkerIndex {
+
+    static final class Plan {
+        final int[] added;
+        final int[] removed;
+
+        Plan(int[] added, int[] removed) {
+            this.added = added;
+            this.removed = removed;
+        }
+
+        boolean isEmpty() {
+            return added.length == 0 && removed.length == 0;
+        }
+    }
+
+    private final MarkerSpec[] specs;
+    private final MarkerQuadTree tree;
+    private final BitSet materialized = new BitSet();
+    // Reused between plans so a camera move doesn't allocate a new bit set
+    private final BitSet inView = new BitSet();
+
+    VirtualMarkerIndex(List<MarkerSpec> specs) {
+        int count = specs.size();
+        this.specs = specs.toArray(new MarkerSpec[0]);
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = this.specs[i].latitude;
+            longitudes[i] = this.specs[i].longitude;
+        }
+        this.tree = new MarkerQuadTree(latitudes, longitudes, count);
+    }
+
+    int size() {
+        return specs.length;
+    }
+
+    MarkerSpec spec(int index) {
+        return specs[index];
+    }
+
+    boolean isMaterialized(int index) {
+        return materialized.get(index);
+    }
+
+    void setMaterialized(int index, boolean value) {
+        materialized.set(index, value);
+    }
+
+    int materializedCount() {
+        return materialized.cardinality();
+    }
+
+    /**
+     * Markers in the box that aren't materialized yet are added, materialized ones outside it
+     * are removed. At most maxVisible markers stay materialized; markers already on the map
+     * are kept in preference to new ones so panning doesn't make them flicker.
+     */
+    Plan plan(double south, double west, double north, double east, int maxVisible) {
+        inView.clear();
+        tree.query(south, west, north, east, inView);
+
+        int kept = 0;
+        int removedCount = 0;
+        for (int i = materialized.nextSetBit(0); i >= 0; i = materialized.nextSetBit(i + 1)) {
+            if (inView.get(i)) {
+                kept++;
+            } else {
+                removedCount++;
+            }
+        }
+        int[] removed = new int[removedCount];
+        int r = 0;
+        for (int i = materialized.nextSetBit(0); i >= 0; i = materialized.nextSetBit(i + 1)) {
+            if (!inView.get(i)) {
+                removed[r++] = i;
+            }
+        }
+
+        int room = Math.max(0, maxVisible - kept);
+        int[] added = new int[Math.min(room, inView.cardinality() - kept)];
+        int a = 0;
+        for (int i = inView.nextSetBit(0); i >= 0 && a < added.length; i = inView.nextSetBit(i + 1)) {
+            if (!materialized.get(i)) {
+                added[a++] = i;
+            }
+        }
+        return new Plan(added, removed);
+    }
+}
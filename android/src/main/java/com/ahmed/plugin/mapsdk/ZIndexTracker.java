@@ -0,0 +1,45 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Multiset of the z-indexes of markers that take part in automatic stacking.
+ * Replaces the per-insert scan over every marker: adding, removing and reading
+ * the current top are all O(log n), and the top stays correct after removals.
+ */
+final class ZIndexTracker {
+
+    private final TreeMap<Float, Integer> counts = new TreeMap<>();
+
+    void add(float zIndex) {
+        counts.merge(zIndex, 1, Integer::sum);
+    }
+
+    void remove(float zIndex) {
+        Integer count = counts.get(zIndex);
+        if (count == null) {
+            return;
+        }
+        if (count == 1) {
+            counts.remove(zIndex);
+        } else {
+            counts.put(zIndex, count - 1);
+        }
+    }
+
+    void clear() {
+        counts.clear();
+    }
+
+    /** Highest tracked z-index, never below 0 so new markers start at 1. */
+    float highest() {
+        Map.Entry<Float, Integer> last = counts.lastEntry();
+        return last == null ? 0f : Math.max(0f, last.getKey());
+    }
+
+    /** The z-index a newly stacked marker should get to appear above all tracked ones. */
+    float next() {
+        return highest() + 1f;
+    }
+}
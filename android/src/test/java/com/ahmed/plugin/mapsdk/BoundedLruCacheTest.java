@@ -0,0 +1,80 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class BoundedLruCacheTest {
+
+    @Test
+    public void evictsLeastRecentlyUsedWhenOverBudget() {
+        BoundedLruCache<String, String> cache = new BoundedLruCache<>(100);
+        cache.put("a", "A", 40);
+        cache.put("b", "B", 40);
+        assertEquals("A", cache.get("a")); // "b" is now the eldest
+
+        cache.put("c", "C", 40);
+
+        assertNull(cache.get("b"));
+        assertEquals("A", cache.get("a"));
+        assertEquals("C", cache.get("c"));
+        assertEquals(80, cache.weight());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        BoundedLruCache<String, String> cache = new BoundedLruCache<>(100);
+        cache.put("a", "A", 10);
+
+        cache.get("a");
+        cache.get("a");
+        cache.get("missing");
+
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void replacingAnEntryUpdatesWeight() {
+        BoundedLruCache<String, String> cache = new BoundedLruCache<>(100);
+        cache.put("a", "A", 30);
+        cache.put("a", "A2", 50);
+
+        assertEquals(1, cache.size());
+        assertEquals(50, cache.weight());
+        assertEquals("A2", cache.get("a"));
+    }
+
+    @Test
+    public void skipsEntriesLargerThanBudget() {
+        BoundedLruCache<String, String> cache = new BoundedLruCache<>(100);
+        cache.put("huge", "H", 101);
+
+        assertEquals(0, cache.size());
+        assertNull(cache.get("huge"));
+    }
+
+    @Test
+    public void shrinkingBudgetEvicts() {
+        BoundedLruCache<String, String> cache = new BoundedLruCache<>(100);
+        cache.put("a", "A", 40);
+        cache.put("b", "B", 40);
+
+        cache.setMaxWeight(50);
+
+        assertEquals(1, cache.size());
+        assertEquals("B", cache.get("b"));
+    }
+
+    @Test
+    public void styleKeysWithSameValuesAreEqual() {
+        MarkerStyleKey a = new MarkerStyleKey("#FF0000", "#FFFFFF", "#000000", "", 2.75f);
+        MarkerStyleKey b = new MarkerStyleKey("#FF0000", "#FFFFFF", "#000000", "", 2.75f);
+        MarkerStyleKey otherDensity = new MarkerStyleKey("#FF0000", "#FFFFFF", "#000000", "", 3f);
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertFalse(a.equals(otherDensity));
+    }
+}
@@ -0,0 +1,161 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CachedTileSourceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private String urlTemplate;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private volatile int delayMs = 0;
+
+    // Local stand-in for a tile server: /{z}/{x}/{y}.png answers with "z/x/y", 404 for zoom 9
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            int now = running.incrementAndGet();
+            maxRunning.accumulateAndGet(now, Math::max);
+            try {
+                if (delayMs > 0) {
+                    Thread.sleep(delayMs);
+                }
+                String path = exchange.getRequestURI().getPath();
+                String tile = path.substring(1, path.length() - ".png".length());
+                if (tile.startsWith("9/")) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else {
+                    byte[] body = tile.getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+        urlTemplate = "http://127.0.0.1:" + server.getAddress().getPort() + "/{z}/{x}/{y}.png";
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void downloadsOnceThenServesFromCache() throws IOException {
+        CachedTileSource source = newSource();
+
+        assertEquals("3/4/5", text(source.tile(4, 5, 3)));
+        assertEquals("3/4/5", text(source.tile(4, 5, 3)));
+        assertEquals(1, requests.get());
+        assertTrue(source.isCached(4, 5, 3));
+    }
+
+    @Test
+    public void diskCacheSurvivesANewSource() throws IOException {
+        CachedTileSource source = newSource();
+        source.tile(1, 2, 3);
+        source.close();
+
+        server.stop(0);
+        CachedTileSource offline = newSource();
+        assertEquals("3/1/2", text(offline.tile(1, 2, 3)));
+    }
+
+    @Test
+    public void missingTilesAreCachedAsEmpty() throws IOException {
+        CachedTileSource source = newSource();
+
+        assertEquals(0, source.tile(0, 0, 9).length);
+        assertEquals(0, source.tile(0, 0, 9).length);
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void unreachableServerIsNotCached() throws IOException {
+        server.stop(0);
+        CachedTileSource source = newSource();
+
+        assertNull(source.tile(0, 0, 1));
+        assertFalse(source.isCached(0, 0, 1));
+    }
+
+    @Test
+    public void prefetchFetchesEveryTileWithBoundedConcurrency() throws Exception {
+        CachedTileSource source = newSource();
+        delayMs = 20;
+        source.tile(8, 6, 4); // already cached, Algiers at zoom 4
+
+        // Northern Algeria, zooms 4 to 7
+        CachedTileSource.PrefetchResult result = source.prefetch(34, 0, 37, 5, 4, 7, 3, new AtomicBoolean());
+
+        long expected = CachedTileSource.countTiles(34, 0, 37, 5, 4, 7);
+        assertEquals(expected, result.total);
+        assertEquals(1, result.cached);
+        assertEquals(expected - 1, result.downloaded);
+        assertEquals(0, result.failed);
+        assertFalse(result.cancelled);
+        // One request for the tile cached up front, one per downloaded tile
+        assertEquals(expected, requests.get());
+        assertTrue(maxRunning.get() <= 3);
+        assertTrue(source.isCached(65, 49, 7));
+    }
+
+    @Test
+    public void prefetchAcrossTheAntimeridian() {
+        // Fiji: from 177E to 178W covers the last and the first column at zoom 2
+        assertEquals(2, CachedTileSource.countTiles(-18, 177, -16, -178, 2, 2));
+        assertEquals(1, CachedTileSource.countTiles(-18, 170, -16, 175, 2, 2));
+    }
+
+    @Test
+    public void cancelledPrefetchStopsEarly() throws Exception {
+        CachedTileSource source = newSource();
+        AtomicBoolean cancel = new AtomicBoolean(true);
+
+        CachedTileSource.PrefetchResult result = source.prefetch(34, 0, 37, 5, 4, 7, 2, cancel);
+
+        assertTrue(result.cancelled);
+        assertEquals(0, requests.get());
+    }
+
+    private CachedTileSource newSource() throws IOException {
+        DiskTileStore disk = new DiskTileStore(new File(folder.getRoot(), "tiles.cache"), 256 * 1024);
+        return new CachedTileSource(urlTemplate, disk, 64 * 1024, 2000);
+    }
+
+    private static String text(byte[] data) {
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
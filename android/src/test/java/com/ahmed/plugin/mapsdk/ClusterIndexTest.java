@@ -0,0 +1,83 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ClusterIndexTest {
+
+    // Two points ~100m apart in Algiers and one in Constantine, ~320km east
+    private final double[] lats = { 36.7538, 36.7545, 36.3650 };
+    private final double[] lngs = { 3.0588, 3.0600, 6.6147 };
+
+    @Test
+    public void mergesNearbyPointsAtLowZoom() {
+        ClusterIndex index = new ClusterIndex(lats, lngs, 3, 64, 0, 16);
+
+        List<ClusterIndex.Cluster> clusters = index.clustersInView(2, -90, -180, 90, 180);
+
+        assertEquals(1, clusters.size());
+        assertEquals(3, clusters.get(0).count);
+        int[] members = clusters.get(0).memberIndices();
+        Arrays.sort(members);
+        assertArrayEquals(new int[] { 0, 1, 2 }, members);
+    }
+
+    @Test
+    public void separatesDistantPointsAtCityZoom() {
+        ClusterIndex index = new ClusterIndex(lats, lngs, 3, 64, 0, 16);
+
+        List<ClusterIndex.Cluster> clusters = index.clustersInView(10, -90, -180, 90, 180);
+
+        assertEquals(2, clusters.size());
+        int total = 0;
+        for (ClusterIndex.Cluster cluster : clusters) {
+            total += cluster.count;
+        }
+        assertEquals(3, total);
+    }
+
+    @Test
+    public void countsAndBoundsAggregateUpTheHierarchy() {
+        ClusterIndex index = new ClusterIndex(lats, lngs, 3, 64, 0, 16);
+
+        ClusterIndex.Cluster world = index.clustersInView(0, -90, -180, 90, 180).get(0);
+
+        assertEquals(36.3650, world.south, 1e-9);
+        assertEquals(36.7545, world.north, 1e-9);
+        assertEquals(3.0588, world.west, 1e-9);
+        assertEquals(6.6147, world.east, 1e-9);
+        assertEquals((36.7538 + 36.7545 + 36.3650) / 3, world.latitude(), 1e-9);
+    }
+
+    @Test
+    public void filtersByViewport() {
+        ClusterIndex index = new ClusterIndex(lats, lngs, 3, 64, 0, 16);
+
+        // Box around Constantine only
+        List<ClusterIndex.Cluster> clusters = index.clustersInView(10, 36, 6, 36.6, 7);
+
+        assertEquals(1, clusters.size());
+        assertArrayEquals(new int[] { 2 }, clusters.get(0).memberIndices());
+    }
+
+    @Test
+    public void returnsNullPastMaxZoom() {
+        ClusterIndex index = new ClusterIndex(lats, lngs, 3, 64, 0, 16);
+
+        assertNull(index.clustersInView(17, -90, -180, 90, 180));
+    }
+
+    @Test
+    public void maxZoomIsClampedToTheMapRange() {
+        // With the finest grid, zooms past 27 used to overflow the cell key and merge distant cells
+        ClusterIndex index = new ClusterIndex(lats, lngs, 3, 16, 0, 40);
+
+        assertNull(index.clustersInView(ClusterIndex.MAX_ZOOM + 1, -90, -180, 90, 180));
+        List<ClusterIndex.Cluster> clusters = index.clustersInView(ClusterIndex.MAX_ZOOM, -90, -180, 90, 180);
+        assertEquals(3, clusters.size());
+    }
+}
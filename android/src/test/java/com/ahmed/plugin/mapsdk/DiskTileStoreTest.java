@@ -0,0 +1,140 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DiskTileStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void storesAndReturnsTiles() throws IOException {
+        DiskTileStore store = new DiskTileStore(new File(folder.getRoot(), "tiles.cache"), 64 * 1024);
+
+        store.put(1, new byte[] { 1, 2, 3 });
+        store.put(2, new byte[0]);
+
+        assertArrayEquals(new byte[] { 1, 2, 3 }, store.get(1));
+        assertArrayEquals(new byte[0], store.get(2));
+        assertNull(store.get(3));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void newerCopyReplacesOlderOne() throws IOException {
+        File path = new File(folder.getRoot(), "tiles.cache");
+        DiskTileStore store = new DiskTileStore(path, 64 * 1024);
+        store.put(1, new byte[] { 1 });
+        store.put(1, new byte[] { 2 });
+        store.close();
+
+        DiskTileStore reopened = new DiskTileStore(path, 64 * 1024);
+        assertArrayEquals(new byte[] { 2 }, reopened.get(1));
+        assertEquals(1, reopened.size());
+    }
+
+    @Test
+    public void tilesSurviveReopening() throws IOException {
+        File path = new File(folder.getRoot(), "tiles.cache");
+        DiskTileStore store = new DiskTileStore(path, 64 * 1024);
+        for (int i = 0; i < 20; i++) {
+            store.put(i, tile(i, 1000));
+        }
+        store.close();
+
+        DiskTileStore reopened = new DiskTileStore(path, 64 * 1024);
+        assertEquals(20, reopened.size());
+        assertArrayEquals(tile(7, 1000), reopened.get(7));
+    }
+
+    @Test
+    public void wrapsAroundOverwritingTheOldestTiles() throws IOException {
+        File path = new File(folder.getRoot(), "tiles.cache");
+        // Room for a little under ten 1KB tiles
+        DiskTileStore store = new DiskTileStore(path, 10 * 1024);
+        for (int i = 0; i < 25; i++) {
+            store.put(i, tile(i, 1000));
+        }
+
+        assertNull(store.get(0));
+        assertNull(store.get(14));
+        for (int i = 16; i < 25; i++) {
+            assertArrayEquals(tile(i, 1000), store.get(i));
+        }
+        int size = store.size();
+        assertTrue(size >= 9 && size <= 10);
+        store.close();
+
+        // The previous lap's survivors are found again after reopening
+        DiskTileStore reopened = new DiskTileStore(path, 10 * 1024);
+        assertEquals(size, reopened.size());
+        assertArrayEquals(tile(16, 1000), reopened.get(16));
+        assertArrayEquals(tile(24, 1000), reopened.get(24));
+    }
+
+    @Test
+    public void changingTheSizeStartsOver() throws IOException {
+        File path = new File(folder.getRoot(), "tiles.cache");
+        DiskTileStore store = new DiskTileStore(path, 64 * 1024);
+        store.put(1, new byte[] { 1 });
+        store.close();
+
+        DiskTileStore resized = new DiskTileStore(path, 128 * 1024);
+        assertNull(resized.get(1));
+        assertEquals(0, resized.size());
+    }
+
+    @Test
+    public void tilesLargerThanTheStoreAreSkipped() throws IOException {
+        DiskTileStore store = new DiskTileStore(new File(folder.getRoot(), "tiles.cache"), 4 * 1024);
+        store.put(1, new byte[8 * 1024]);
+
+        assertNull(store.get(1));
+    }
+
+    @Test
+    public void aFileCanOnlyBeOpenOnce() throws IOException {
+        File path = new File(folder.getRoot(), "tiles.cache");
+        DiskTileStore store = new DiskTileStore(path, 64 * 1024);
+        store.put(1, new byte[] { 1 });
+
+        try {
+            new DiskTileStore(path, 128 * 1024);
+            fail("expected IOException");
+        } catch (IOException expected) {
+            // The open store is untouched
+        }
+        assertArrayEquals(new byte[] { 1 }, store.get(1));
+
+        store.close();
+        DiskTileStore reopened = new DiskTileStore(path, 64 * 1024);
+        assertArrayEquals(new byte[] { 1 }, reopened.get(1));
+    }
+
+    @Test
+    public void closedStoreIsEmptyAndIgnoresWrites() throws IOException {
+        DiskTileStore store = new DiskTileStore(new File(folder.getRoot(), "tiles.cache"), 64 * 1024);
+        store.put(1, new byte[] { 1 });
+        store.close();
+
+        store.put(2, new byte[] { 2 });
+        assertNull(store.get(1));
+        assertFalse(store.contains(2));
+        store.close();
+    }
+
+    private static byte[] tile(int seed, int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (seed * 31 + i);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,69 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class EventBatcherTest {
+
+    @Test
+    public void keepsEveryEventByDefault() {
+        EventBatcher<String> batcher = new EventBatcher<>();
+
+        assertTrue(batcher.add("onMarkerClick", null, "a"));
+        assertFalse(batcher.add("onMarkerClick", null, "b"));
+
+        List<EventBatcher.Event<String>> events = batcher.drain();
+        assertEquals(2, events.size());
+        assertTrue(batcher.isEmpty());
+    }
+
+    @Test
+    public void latestReplacesDataInPlace() {
+        EventBatcher<String> batcher = new EventBatcher<>();
+        batcher.setRule("onBoundsChanged", EventBatcher.Rule.LATEST);
+
+        batcher.add("onBoundsChanged", null, "first");
+        batcher.add("onMapClick", null, "click");
+        batcher.add("onBoundsChanged", null, "second");
+
+        List<EventBatcher.Event<String>> events = batcher.drain();
+        assertEquals(2, events.size());
+        assertEquals("onBoundsChanged", events.get(0).name);
+        assertEquals("second", events.get(0).data);
+        assertEquals(1, events.get(0).coalesced);
+        assertEquals(0, events.get(1).coalesced);
+        assertEquals(1, batcher.takeCoalescedCount());
+        assertEquals(0, batcher.takeCoalescedCount());
+    }
+
+    @Test
+    public void latestPerKeyKeepsOneEventPerMarkerBeforeDragEnd() {
+        EventBatcher<String> batcher = new EventBatcher<>();
+        batcher.setRule("onMarkerDrag", EventBatcher.Rule.LATEST_PER_KEY);
+
+        batcher.add("onMarkerDrag", "m1", "m1@1");
+        batcher.add("onMarkerDrag", "m2", "m2@1");
+        batcher.add("onMarkerDrag", "m1", "m1@2");
+        batcher.add("onMarkerDragEnd", "m1", "m1 end");
+
+        List<EventBatcher.Event<String>> events = batcher.drain();
+        assertEquals(3, events.size());
+        assertEquals("m1@2", events.get(0).data);
+        assertEquals("m2@1", events.get(1).data);
+        assertEquals("onMarkerDragEnd", events.get(2).name);
+    }
+
+    @Test
+    public void drainStartsANewWindow() {
+        EventBatcher<String> batcher = new EventBatcher<>();
+        batcher.setRule("onBoundsChanged", EventBatcher.Rule.LATEST);
+        batcher.add("onBoundsChanged", null, "first");
+        batcher.drain();
+
+        assertTrue(batcher.add("onBoundsChanged", null, "second"));
+        assertEquals("second", batcher.drain().get(0).data);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class EventThrottleTest {
+
+    @Test
+    public void unlimitedAlwaysEmits() {
+        EventThrottle throttle = new EventThrottle(0, true);
+
+        assertEquals(EventThrottle.EMIT_NOW, throttle.offer(0));
+        assertEquals(EventThrottle.EMIT_NOW, throttle.offer(1));
+        assertTrue(throttle.isUnlimited());
+    }
+
+    @Test
+    public void leadingEdgeThenOneTrailingEmission() {
+        EventThrottle throttle = new EventThrottle(10, true); // 100ms
+
+        assertEquals(EventThrottle.EMIT_NOW, throttle.offer(1000));
+        assertEquals(70, throttle.offer(1030));
+        // Everything until the trailing emission fires is absorbed by it
+        assertEquals(EventThrottle.DROP, throttle.offer(1050));
+        assertEquals(EventThrottle.DROP, throttle.offer(1099));
+
+        throttle.trailingFired(1100);
+        assertFalse(throttle.isTrailingPending());
+        assertEquals(90, throttle.offer(1110));
+    }
+
+    @Test
+    public void withoutTrailingIntermediateEventsAreDropped() {
+        EventThrottle throttle = new EventThrottle(10, false);
+
+        assertEquals(EventThrottle.EMIT_NOW, throttle.offer(1000));
+        assertEquals(EventThrottle.DROP, throttle.offer(1050));
+        assertEquals(EventThrottle.EMIT_NOW, throttle.offer(1100));
+    }
+
+    @Test
+    public void resetEmitsTheNextEventImmediately() {
+        EventThrottle throttle = new EventThrottle(10, true);
+        throttle.offer(1000);
+        throttle.offer(1010);
+
+        throttle.reset();
+
+        assertFalse(throttle.isTrailingPending());
+        assertEquals(EventThrottle.EMIT_NOW, throttle.offer(1020));
+    }
+}
@@ -0,0 +1,107 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class HeatmapRendererTest {
+
+    private static final int RED = 0xFFFF0000;
+    private static final int GREEN = 0xFF00FF00;
+    private static final int[] COLOR_MAP = HeatmapRenderer.colorMap(
+            new int[] { GREEN, RED }, new float[] { 0.2f, 1f }, 1.0, 256);
+
+    private final float[] intensity = new float[HeatmapRenderer.TILE_SIZE * HeatmapRenderer.TILE_SIZE];
+    private final int[] pixels = new int[HeatmapRenderer.TILE_SIZE * HeatmapRenderer.TILE_SIZE];
+
+    @Test
+    public void colorMapFadesInAndEndsOnTheLastColor() {
+        assertEquals(0, COLOR_MAP[0] >>> 24);
+        assertEquals(GREEN & 0xFFFFFF, COLOR_MAP[20] & 0xFFFFFF);
+        assertEquals(RED, COLOR_MAP[255]);
+
+        int[] translucent = HeatmapRenderer.colorMap(new int[] { GREEN, RED }, new float[] { 0.2f, 1f }, 0.5, 256);
+        assertEquals(128, translucent[255] >>> 24);
+    }
+
+    @Test
+    public void singlePointPeaksAtItsPixel() {
+        // At zoom 0 the world is one 256px tile; (0, 0) is its center
+        HeatmapRenderer renderer = new HeatmapRenderer(
+                Collections.singletonList(new HeatmapRenderer.Point("a", 0, 0, 1)), 10, COLOR_MAP, 1);
+
+        assertTrue(renderer.render(0, 0, 0, intensity, pixels));
+        assertEquals(RED, pixels[128 * 256 + 128]);
+        assertEquals(0, pixels[0]);
+        // The kernel fades out with distance
+        assertTrue((pixels[128 * 256 + 135] >>> 24) < 255);
+    }
+
+    @Test
+    public void tilesOutOfReachAreEmpty() {
+        HeatmapRenderer renderer = new HeatmapRenderer(
+                Collections.singletonList(new HeatmapRenderer.Point("a", 36.7, 3.0, 1)), 10, COLOR_MAP, 0);
+
+        // Zoom 2: Algiers is in tile (2, 1); tile (0, 0) is the far north-west
+        assertTrue(renderer.render(2, 1, 2, intensity, pixels));
+        assertFalse(renderer.render(0, 0, 2, intensity, pixels));
+    }
+
+    @Test
+    public void pointsNearTheAntimeridianReachAcrossIt() {
+        HeatmapRenderer renderer = new HeatmapRenderer(
+                Collections.singletonList(new HeatmapRenderer.Point(null, 10, 179.999, 1)), 10, COLOR_MAP, 0);
+
+        assertTrue(renderer.render(1, 0, 1, intensity, pixels));
+        assertTrue(renderer.render(0, 0, 1, intensity, pixels));
+    }
+
+    @Test
+    public void updatesReportTheTilesTheyTouch() {
+        HeatmapRenderer renderer = new HeatmapRenderer(
+                Collections.singletonList(new HeatmapRenderer.Point("a", 36.7, 3.0, 1)), 10, COLOR_MAP, 0);
+
+        Set<Long> dirty = new HashSet<>();
+        renderer.update(Collections.emptyList(), Collections.singletonList("a"), dirty);
+
+        assertTrue(dirty.contains(HeatmapRenderer.tileKey(0, 0, 0)));
+        assertTrue(dirty.contains(HeatmapRenderer.tileKey(2, 1, 2)));
+        assertFalse(dirty.contains(HeatmapRenderer.tileKey(0, 0, 2)));
+        // One or a few tiles per zoom level, not the whole pyramid
+        assertTrue(dirty.size() <= 4 * (HeatmapRenderer.MAX_ZOOM + 1));
+        assertEquals(0, renderer.pointCount());
+        assertFalse(renderer.render(2, 1, 2, intensity, pixels));
+    }
+
+    @Test
+    public void pointsWithTheSameIdAreReplaced() {
+        List<HeatmapRenderer.Point> points = Arrays.asList(
+                new HeatmapRenderer.Point("a", 36.7, 3.0, 1),
+                new HeatmapRenderer.Point("b", 35.7, -0.6, 1));
+        HeatmapRenderer renderer = new HeatmapRenderer(points, 10, COLOR_MAP, 0);
+
+        Set<Long> dirty = new HashSet<>();
+        renderer.update(Collections.singletonList(new HeatmapRenderer.Point("a", -33.9, 18.4, 1)),
+                Collections.emptyList(), dirty);
+
+        assertEquals(2, renderer.pointCount());
+        // Both the old and the new position are redrawn
+        assertTrue(dirty.contains(HeatmapRenderer.tileKey(2, 1, 2)));
+        assertTrue(dirty.contains(HeatmapRenderer.tileKey(2, 2, 2)));
+    }
+
+    @Test
+    public void pointsWithoutWeightAreIgnored() {
+        HeatmapRenderer renderer = new HeatmapRenderer(
+                Collections.singletonList(new HeatmapRenderer.Point("a", 0, 0, 0)), 10, COLOR_MAP, 0);
+
+        assertEquals(0, renderer.pointCount());
+        assertFalse(renderer.render(0, 0, 0, intensity, pixels));
+    }
+}
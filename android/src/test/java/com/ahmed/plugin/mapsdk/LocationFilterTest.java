@@ -0,0 +1,97 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LocationFilterTest {
+
+    // Roughly one meter of latitude in degrees
+    private static final double METER = 1 / 111195.0;
+
+    @Test
+    public void firstFixIsEmitted() {
+        LocationFilter filter = new LocationFilter(10, 50);
+
+        assertTrue(filter.offer(36.75, 3.06, 5, Double.NaN, 0));
+        assertEquals(36.75, filter.latitude(), 1e-9);
+        assertEquals(5, filter.accuracy(), 1e-9);
+    }
+
+    @Test
+    public void smallMovementsAreHeldBackUntilTheyAddUp() {
+        LocationFilter filter = new LocationFilter(10, 50);
+        filter.offer(0, 0, 3, Double.NaN, 0);
+
+        int emitted = 0;
+        // Walking north at 1.5 m/s, one fix per second
+        for (int second = 1; second <= 30; second++) {
+            if (filter.offer(1.5 * second * METER, 0, 3, 1.5, second * 1000L)) {
+                emitted++;
+            }
+        }
+        // ~45m walked: a handful of emissions, not thirty
+        assertTrue(emitted >= 2 && emitted <= 5);
+    }
+
+    @Test
+    public void smoothingFavorsTheMoreAccurateFixes() {
+        LocationFilter filter = new LocationFilter(0, 50);
+        filter.offer(0, 0, 2, Double.NaN, 0);
+
+        // A noisy fix 20m off barely moves a precise estimate
+        filter.offer(20 * METER, 0, 50, Double.NaN, 1000);
+        double moved = LocationFilter.distanceMeters(0, 0, filter.latitude(), filter.longitude());
+        assertTrue(moved < 2);
+    }
+
+    @Test
+    public void jumpsAreRejectedAsOutliers() {
+        LocationFilter filter = new LocationFilter(0, 50);
+        filter.offer(0, 0, 5, Double.NaN, 0);
+
+        // 5km in a second
+        assertFalse(filter.offer(5000 * METER, 0, 5, Double.NaN, 1000));
+        assertEquals(0, filter.latitude(), 1e-9);
+        // The next plausible fix is fine
+        assertTrue(filter.offer(2 * METER, 0, 5, Double.NaN, 2000));
+    }
+
+    @Test
+    public void persistentJumpsRestartTheFilter() {
+        LocationFilter filter = new LocationFilter(0, 50);
+        filter.offer(0, 0, 5, Double.NaN, 0);
+
+        double far = 5000 * METER;
+        assertFalse(filter.offer(far, 0, 5, Double.NaN, 1000));
+        assertFalse(filter.offer(far, 0, 5, Double.NaN, 1100));
+        assertTrue(filter.offer(far, 0, 5, Double.NaN, 1200));
+        assertEquals(far, filter.latitude(), 1e-9);
+    }
+
+    @Test
+    public void olderFixesAreIgnored() {
+        LocationFilter filter = new LocationFilter(0, 50);
+        filter.offer(0, 0, 5, Double.NaN, 5000);
+
+        assertFalse(filter.offer(1 * METER, 0, 5, Double.NaN, 4000));
+    }
+
+    @Test
+    public void resetEmitsTheNextFix() {
+        LocationFilter filter = new LocationFilter(100, 50);
+        filter.offer(0, 0, 5, Double.NaN, 0);
+        assertFalse(filter.offer(METER, 0, 5, Double.NaN, 1000));
+
+        filter.reset();
+        assertTrue(filter.offer(METER, 0, 5, Double.NaN, 2000));
+    }
+
+    @Test
+    public void distanceIsHaversine() {
+        // Algiers to Oran, about 353 km
+        double distance = LocationFilter.distanceMeters(36.7538, 3.0588, 35.6971, -0.6308);
+        assertEquals(353000, distance, 5000);
+        assertEquals(0, LocationFilter.distanceMeters(10, 20, 10, 20), 1e-9);
+    }
+}
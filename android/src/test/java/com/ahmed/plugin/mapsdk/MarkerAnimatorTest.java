@@ -0,0 +1,116 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class MarkerAnimatorTest {
+
+    private static final long MS = 1_000_000L;
+    private static final double EPSILON = 1e-9;
+
+    private final Map<String, double[]> positions = new HashMap<>();
+    private final Set<String> removed = new HashSet<>();
+    private final MarkerAnimator.Sink<String> sink = (id, marker, latitude, longitude) -> {
+        if (removed.contains(id)) {
+            return false;
+        }
+        positions.put(id, new double[] { latitude, longitude });
+        return true;
+    };
+
+    @Test
+    public void movesAtConstantSpeedAndStopsOnTheTarget() {
+        MarkerAnimator<String> animator = new MarkerAnimator<>();
+        animator.animate("a", "marker-a", 0, 0, 10, 20, 1000, 0);
+
+        assertEquals(1, animator.step(250 * MS, sink));
+        assertPosition("a", 2.5, 5);
+
+        assertEquals(0, animator.step(1200 * MS, sink));
+        assertPosition("a", 10, 20);
+        assertFalse(animator.isAnimating("a"));
+    }
+
+    @Test
+    public void newTargetStartsFromTheCurrentPosition() {
+        MarkerAnimator<String> animator = new MarkerAnimator<>();
+        animator.animate("a", "marker-a", 0, 0, 10, 0, 1000, 0);
+        animator.step(500 * MS, sink);
+        assertPosition("a", 5, 0);
+
+        // The start position passed in is ignored while the marker is moving
+        animator.animate("a", "marker-a", 99, 99, 5, 10, 1000, 500 * MS);
+        assertEquals(1, animator.size());
+        animator.step(1000 * MS, sink);
+        assertPosition("a", 5, 5);
+    }
+
+    @Test
+    public void zeroDurationJumpsOnTheNextFrame() {
+        MarkerAnimator<String> animator = new MarkerAnimator<>();
+        animator.animate("a", "marker-a", 0, 0, 1, 2, 0, 0);
+
+        assertEquals(0, animator.step(0, sink));
+        assertPosition("a", 1, 2);
+    }
+
+    @Test
+    public void crossesTheAntimeridianTheShortWay() {
+        MarkerAnimator<String> animator = new MarkerAnimator<>();
+        animator.animate("a", "marker-a", 0, 170, 0, -170, 1000, 0);
+
+        animator.step(250 * MS, sink);
+        assertPosition("a", 0, 175);
+        animator.step(750 * MS, sink);
+        assertPosition("a", 0, -175);
+    }
+
+    @Test
+    public void sinkRejectionAndCancelDropAnimations() {
+        MarkerAnimator<String> animator = new MarkerAnimator<>();
+        for (int i = 0; i < 40; i++) {
+            animator.animate("m" + i, "marker-" + i, 0, 0, 1, 1, 1000, 0);
+        }
+        removed.add("m3");
+        animator.cancel("m7");
+
+        assertEquals(38, animator.step(500 * MS, sink));
+        assertFalse(positions.containsKey("m3"));
+        assertFalse(positions.containsKey("m7"));
+        assertFalse(animator.isAnimating("m3"));
+        // Swap-removal keeps every other marker moving
+        for (int i = 0; i < 40; i++) {
+            if (i != 3 && i != 7) {
+                assertPosition("m" + i, 0.5, 0.5);
+            }
+        }
+
+        animator.clear();
+        assertEquals(0, animator.step(600 * MS, sink));
+    }
+
+    @Test
+    public void recreatedMarkerStartsOver() {
+        MarkerAnimator<String> animator = new MarkerAnimator<>();
+        animator.animate("a", "old", 0, 0, 10, 0, 1000, 0);
+        animator.step(500 * MS, sink);
+
+        animator.animate("a", "new", 20, 0, 30, 0, 1000, 500 * MS);
+        animator.step(1000 * MS, sink);
+        assertPosition("a", 25, 0);
+        assertEquals(1, animator.size());
+    }
+
+    private void assertPosition(String id, double latitude, double longitude) {
+        double[] position = positions.get(id);
+        assertNotNull(position);
+        assertEquals(latitude, position[0], EPSILON);
+        assertEquals(longitude, position[1], EPSILON);
+    }
+}
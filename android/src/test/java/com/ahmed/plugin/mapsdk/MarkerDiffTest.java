@@ -0,0 +1,73 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class MarkerDiffTest {
+
+    private static MarkerSpec plain(String key, double lat, double lng) {
+        return new MarkerSpec(key, lat, lng, "shop", false, null, null, null, null);
+    }
+
+    private static MarkerSpec custom(String key, double lat, double lng, String color) {
+        return new MarkerSpec(key, lat, lng, "shop", false, null, null, new String[] { color, "#FFFFFF", "#000000" }, "pin");
+    }
+
+    private static MarkerRegistry<String> registryOf(MarkerSpec... specs) {
+        MarkerRegistry<String> registry = new MarkerRegistry<>();
+        for (int i = 0; i < specs.length; i++) {
+            registry.add("m" + i, "marker", specs[i], 0f, true);
+        }
+        return registry;
+    }
+
+    @Test
+    public void addsRemovesAndKeepsUnchanged() {
+        MarkerRegistry<String> registry = registryOf(plain("a", 1, 1), plain("b", 2, 2));
+
+        MarkerDiff diff = MarkerDiff.compute(registry, Arrays.asList(plain("a", 1, 1), plain("c", 3, 3)));
+
+        assertEquals(1, diff.added.size());
+        assertEquals("c", diff.added.get(0).id);
+        assertEquals(Collections.singletonList("m1"), diff.removed);
+        assertTrue(diff.updated.isEmpty());
+        assertEquals(1, diff.unchanged);
+    }
+
+    @Test
+    public void flagsOnlyChangedProperties() {
+        MarkerRegistry<String> registry = registryOf(custom("a", 1, 1, "#FF0000"), custom("b", 2, 2, "#FF0000"));
+
+        MarkerDiff diff = MarkerDiff.compute(registry, Arrays.asList(
+                custom("a", 1.5, 1, "#FF0000"),
+                custom("b", 2, 2, "#00FF00")
+        ));
+
+        assertEquals(2, diff.updated.size());
+        MarkerDiff.Update moved = diff.updated.get(0);
+        assertTrue(moved.position);
+        assertFalse(moved.icon);
+        MarkerDiff.Update restyled = diff.updated.get(1);
+        assertFalse(restyled.position);
+        assertTrue(restyled.icon);
+        assertEquals(1, diff.specsNeedingIcons().size());
+    }
+
+    @Test
+    public void ignoresMarkersWithoutKeys() {
+        MarkerRegistry<String> registry = registryOf(plain(null, 1, 1));
+
+        MarkerDiff diff = MarkerDiff.compute(registry, Collections.emptyList());
+
+        assertTrue(diff.removed.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDuplicateKeys() {
+        MarkerDiff.compute(new MarkerRegistry<String>(), Arrays.asList(plain("a", 1, 1), plain("a", 2, 2)));
+    }
+}
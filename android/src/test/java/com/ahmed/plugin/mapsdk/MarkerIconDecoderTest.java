@@ -0,0 +1,22 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class MarkerIconDecoderTest {
+
+    @Test
+    public void sampleSizeKeepsDecodedWidthAboveTarget() {
+        // 1024px source for a 36dp marker at 3x density (108px): 1024 / 8 = 128 >= 108
+        assertEquals(8, MarkerIconDecoder.calculateInSampleSize(1024, 108));
+        assertEquals(4, MarkerIconDecoder.calculateInSampleSize(512, 99));
+    }
+
+    @Test
+    public void sampleSizeIsOneForSmallSources() {
+        assertEquals(1, MarkerIconDecoder.calculateInSampleSize(64, 108));
+        assertEquals(1, MarkerIconDecoder.calculateInSampleSize(108, 108));
+        assertEquals(1, MarkerIconDecoder.calculateInSampleSize(1024, 0));
+    }
+}
@@ -0,0 +1,57 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MarkerQuadTreeTest {
+
+    @Test
+    public void matchesLinearScan() {
+        Random random = new Random(42);
+        int count = 5000;
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i < count; i++) {
+            // Dense cluster plus scattered points, so some leaves have to split deeply
+            boolean dense = i % 2 == 0;
+            lats[i] = dense ? 36.7 + random.nextDouble() * 0.01 : random.nextDouble() * 170 - 85;
+            lngs[i] = dense ? 3.0 + random.nextDouble() * 0.01 : random.nextDouble() * 360 - 180;
+        }
+        MarkerQuadTree tree = new MarkerQuadTree(lats, lngs, count);
+
+        double[][] boxes = {
+                { 36.7, 3.0, 36.705, 3.005 },
+                { -10, -20, 40, 60 },
+                { -90, -180, 90, 180 },
+        };
+        for (double[] box : boxes) {
+            BitSet expected = new BitSet();
+            for (int i = 0; i < count; i++) {
+                if (lats[i] >= box[0] && lats[i] <= box[2] && lngs[i] >= box[1] && lngs[i] <= box[3]) {
+                    expected.set(i);
+                }
+            }
+            BitSet actual = new BitSet();
+            tree.query(box[0], box[1], box[2], box[3], actual);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void queryAcrossAntimeridian() {
+        double[] lats = { 0, 0, 0 };
+        double[] lngs = { 179.5, -179.5, 0 };
+        MarkerQuadTree tree = new MarkerQuadTree(lats, lngs, 3);
+
+        BitSet result = new BitSet();
+        tree.query(-1, 179, 1, -179, result);
+
+        assertTrue(result.get(0));
+        assertTrue(result.get(1));
+        assertFalse(result.get(2));
+    }
+}
@@ -0,0 +1,161 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class MarkerRegistryTest {
+
+    private static MarkerSpec spec(String key, String title) {
+        return new MarkerSpec(key, 0, 0, title, false, null, null, null, null);
+    }
+
+    private MarkerRegistry<String> registryWith(String... idTitlePairs) {
+        MarkerRegistry<String> registry = new MarkerRegistry<>();
+        for (int i = 0; i < idTitlePairs.length; i += 2) {
+            String id = idTitlePairs[i];
+            registry.add(id, "marker-" + id, spec(null, idTitlePairs[i + 1]), registry.nextZIndex(), true);
+        }
+        return registry;
+    }
+
+    @Test
+    public void removesById() {
+        MarkerRegistry<String> registry = registryWith("m0", "shop", "m1", "shop");
+
+        assertEquals("marker-m0", registry.remove("m0"));
+        assertNull(registry.remove("m0"));
+        assertEquals(1, registry.size());
+        assertEquals(1, registry.countByTitle("shop"));
+    }
+
+    @Test
+    public void removesByTitle() {
+        MarkerRegistry<String> registry = registryWith("m0", "shop", "m1", "home", "m2", "shop");
+
+        List<String> removed = registry.removeByTitle("shop");
+
+        assertEquals(Arrays.asList("marker-m0", "marker-m2"), removed);
+        assertEquals(1, registry.size());
+        assertNull(registry.get("m0"));
+        assertEquals("marker-m1", registry.get("m1"));
+        assertTrue(registry.removeByTitle("shop").isEmpty());
+    }
+
+    @Test
+    public void removesAllExceptKeptTitles() {
+        MarkerRegistry<String> registry = registryWith("m0", "shop", "m1", "home", "m2", "work");
+
+        List<String> removed = registry.removeAllExcept(new HashSet<>(Collections.singletonList("home")));
+
+        assertEquals(2, removed.size());
+        assertEquals(1, registry.size());
+        assertEquals("marker-m1", registry.get("m1"));
+        assertEquals(0, registry.countByTitle("shop"));
+    }
+
+    @Test
+    public void zIndexFollowsRemovals() {
+        MarkerRegistry<String> registry = registryWith("m0", "a", "m1", "b", "m2", "c");
+        assertEquals(4f, registry.nextZIndex(), 0f);
+
+        registry.remove("m2");
+        assertEquals(3f, registry.nextZIndex(), 0f);
+
+        registry.removeByTitle("b");
+        assertEquals(2f, registry.nextZIndex(), 0f);
+
+        registry.clear();
+        assertEquals(1f, registry.nextZIndex(), 0f);
+    }
+
+    @Test
+    public void unstackedMarkersDoNotRaiseZIndex() {
+        MarkerRegistry<String> registry = new MarkerRegistry<>();
+        registry.add("user", "me", spec(null, "userMarker"), 999999f, false);
+
+        assertEquals(1f, registry.nextZIndex(), 0f);
+    }
+
+    @Test
+    public void replacingAnEntryReindexesTitleAndKey() {
+        MarkerRegistry<String> registry = new MarkerRegistry<>();
+        registry.add("m0", "marker", spec("store-1", "shop"), 1f, true);
+
+        registry.add("m0", "marker", spec("store-1", "home"), 2f, true);
+
+        assertEquals(1, registry.size());
+        assertEquals(0, registry.countByTitle("shop"));
+        assertEquals(1, registry.countByTitle("home"));
+        assertEquals("m0", registry.entryByKey("store-1").id);
+        assertEquals(3f, registry.nextZIndex(), 0f);
+
+        registry.removeByTitle("home");
+        assertNull(registry.entryByKey("store-1"));
+    }
+
+    @Test
+    public void handlesSurviveUpdatesAndDieWithTheMarker() {
+        MarkerRegistry<String> registry = registryWith("m0", "shop", "m1", "shop");
+        int handle = registry.entry("m0").handle;
+        assertTrue(handle > 0);
+        assertNotEquals(handle, registry.entry("m1").handle);
+
+        registry.add("m0", "marker-m0", spec(null, "home"), 1f, true);
+        assertEquals(handle, registry.entry("m0").handle);
+        assertEquals("m0", registry.entryByHandle(handle).id);
+
+        registry.remove("m0");
+        assertNull(registry.entryByHandle(handle));
+
+        // The freed slot is reused, but the old handle still doesn't match
+        registry.add("m2", "marker-m2", spec(null, "shop"), 1f, true);
+        assertNotEquals(handle, registry.entry("m2").handle);
+        assertNull(registry.entryByHandle(handle));
+        assertEquals("m2", registry.entryByHandle(registry.entry("m2").handle).id);
+
+        assertNull(registry.entryByHandle(0));
+        assertNull(registry.entryByHandle(-1));
+    }
+
+    @Test
+    public void bulkRemovalsReleaseHandles() {
+        MarkerRegistry<String> registry = registryWith("m0", "shop", "m1", "home", "m2", "park");
+        int shop = registry.entry("m0").handle;
+        int home = registry.entry("m1").handle;
+        int park = registry.entry("m2").handle;
+
+        registry.removeByTitle("shop");
+        registry.removeAllExcept(Collections.singleton("park"));
+        assertNull(registry.entryByHandle(shop));
+        assertNull(registry.entryByHandle(home));
+        assertNotNull(registry.entryByHandle(park));
+
+        registry.clear();
+        assertNull(registry.entryByHandle(park));
+    }
+
+    @Test
+    public void handlesAreNeverReusedEvenAfterManyCycles() {
+        MarkerRegistry<String> registry = new MarkerRegistry<>();
+        registry.add("first", "marker-first", spec(null, "shop"), 1f, true);
+        int firstHandle = registry.entry("first").handle;
+        registry.remove("first");
+
+        // More add/remove cycles than a slot has generations
+        Set<Integer> seen = new HashSet<>();
+        seen.add(firstHandle);
+        for (int i = 0; i < 5000; i++) {
+            registry.add("m" + i, "marker-" + i, spec(null, "shop"), 1f, true);
+            assertTrue(seen.add(registry.entry("m" + i).handle));
+            registry.remove("m" + i);
+        }
+        assertNull(registry.entryByHandle(firstHandle));
+    }
+}
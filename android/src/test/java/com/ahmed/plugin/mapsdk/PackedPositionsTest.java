@@ -0,0 +1,57 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class PackedPositionsTest {
+
+    @Test
+    public void decodesCoordinatesThenHandles() {
+        byte[] data = pack(new int[] { 7, 1 << 20 | 3 }, new double[] { 36.75, 3.06, -33.9, 18.4 });
+
+        PackedPositions positions = PackedPositions.decode(data);
+
+        assertEquals(2, positions.count);
+        assertArrayEquals(new int[] { 7, 1 << 20 | 3 }, positions.handles);
+        assertArrayEquals(new double[] { 36.75, 3.06, -33.9, 18.4 }, positions.coordinates, 0);
+    }
+
+    @Test
+    public void emptyBufferIsNoPositions() {
+        assertEquals(0, PackedPositions.decode(new byte[0]).count);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTruncatedData() {
+        byte[] data = pack(new int[] { 1 }, new double[] { 1, 2 });
+        PackedPositions.decode(Arrays.copyOf(data, data.length - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsLatitudesOutOfRange() {
+        PackedPositions.decode(pack(new int[] { 1 }, new double[] { 91, 0 }));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNaN() {
+        PackedPositions.decode(pack(new int[] { 1 }, new double[] { 0, Double.NaN }));
+    }
+
+    // Same layout the JS helper writes
+    private static byte[] pack(int[] handles, double[] coordinates) {
+        ByteBuffer buffer = ByteBuffer.allocate(handles.length * PackedPositions.BYTES_PER_POSITION)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (double value : coordinates) {
+            buffer.putDouble(value);
+        }
+        for (int handle : handles) {
+            buffer.putInt(handle);
+        }
+        return buffer.array();
+    }
+}
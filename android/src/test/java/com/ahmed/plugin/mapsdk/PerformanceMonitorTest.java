@@ -0,0 +1,119 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+public class PerformanceMonitorTest {
+
+    @Test
+    public void disabledMonitorRecordsNothing() {
+        PerformanceMonitor monitor = new PerformanceMonitor();
+        Runnable task = () -> {};
+
+        assertSame(task, monitor.wrap("addMarker", PerformanceMonitor.Phase.MAIN_THREAD, true, task));
+        assertEquals(0, monitor.start());
+        monitor.stop(PerformanceMonitor.Phase.BITMAP, 0);
+
+        assertTrue(monitor.methods().isEmpty());
+        assertEquals(0, monitor.queueDepth());
+    }
+
+    @Test
+    public void wrappedTaskRecordsDispatchAndRunPhases() {
+        PerformanceMonitor monitor = new PerformanceMonitor();
+        monitor.setEnabled(true, 0);
+
+        Runnable wrapped = monitor.wrap("addMarker", PerformanceMonitor.Phase.MAIN_THREAD, true, () -> {
+            // Phases recorded inside the task are attributed to the wrapping method
+            long start = monitor.start();
+            monitor.stop(PerformanceMonitor.Phase.BITMAP, start);
+        });
+        assertEquals(1, monitor.queueDepth());
+        wrapped.run();
+
+        assertEquals(0, monitor.queueDepth());
+        assertEquals(1, monitor.maxQueueDepth());
+        Map<PerformanceMonitor.Phase, PerformanceMonitor.Histogram> phases = monitor.methods().get("addMarker");
+        assertEquals(1, phases.get(PerformanceMonitor.Phase.DISPATCH).count());
+        assertEquals(1, phases.get(PerformanceMonitor.Phase.MAIN_THREAD).count());
+        assertEquals(1, phases.get(PerformanceMonitor.Phase.BITMAP).count());
+    }
+
+    @Test
+    public void histogramPercentilesAreBucketUpperBounds() {
+        PerformanceMonitor.Histogram histogram = new PerformanceMonitor.Histogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100); // bucket [64, 127]
+        }
+        histogram.record(5000); // bucket [4096, 8191]
+
+        assertEquals(100, histogram.count());
+        assertEquals(0.127, histogram.percentileMs(0.5), 1e-9);
+        assertEquals(0.127, histogram.percentileMs(0.99), 1e-9);
+        assertEquals(5.0, histogram.percentileMs(1.0), 1e-9);
+        assertEquals(5.0, histogram.maxMs(), 1e-9);
+        assertEquals((99 * 100 + 5000) / 1000.0 / 100, histogram.meanMs(), 1e-9);
+    }
+
+    @Test
+    public void eventsAreCountedPerName() {
+        PerformanceMonitor monitor = new PerformanceMonitor();
+        monitor.setEnabled(true, 0);
+
+        monitor.recordEvent("onBoundsChanged", 20_000);
+        monitor.recordEvent("onBoundsChanged", 30_000);
+        monitor.recordEvent("onMapClick", 10_000);
+
+        assertEquals(2, monitor.events().get("onBoundsChanged").count());
+        assertEquals(1, monitor.events().get("onMapClick").count());
+
+        monitor.reset(1000);
+        assertTrue(monitor.events().isEmpty());
+        assertEquals(1000, monitor.sinceMs());
+    }
+
+    @Test
+    public void emissionsRecordSerializeAgainstTheEmittingMethod() {
+        PerformanceMonitor monitor = new PerformanceMonitor();
+        monitor.setEnabled(true, 0);
+
+        monitor.wrap("setMarkers", PerformanceMonitor.Phase.MAIN_THREAD, true,
+                () -> monitor.recordEmission("onMarkerDrag", 40_000)).run();
+        monitor.recordEmission("onEventBatch", 50_000);
+
+        assertEquals(1, monitor.methods().get("setMarkers").get(PerformanceMonitor.Phase.SERIALIZE).count());
+        // Outside any plugin method the event name stands in
+        assertEquals(1, monitor.methods().get("onEventBatch").get(PerformanceMonitor.Phase.SERIALIZE).count());
+        assertEquals(1, monitor.events().get("onMarkerDrag").count());
+        assertEquals(1, monitor.events().get("onEventBatch").count());
+
+        monitor.setEnabled(false, 0);
+        monitor.recordEmission("onMapClick", 10_000);
+        assertNull(monitor.events().get("onMapClick"));
+    }
+
+    @Test
+    public void batchedEventsAreCountedPerNameWithTheirCoalescedOccurrences() {
+        PerformanceMonitor monitor = new PerformanceMonitor();
+        monitor.setEnabled(true, 0);
+
+        monitor.recordEmission("onEventBatch", 90_000);
+        monitor.recordBatchedEvent("onBoundsChanged", 4, 30_000);
+        monitor.recordBatchedEvent("onMarkerDrag", 0, 30_000);
+        monitor.recordBatchedEvent("onMarkerDrag", 2, 30_000);
+
+        assertEquals(1, monitor.events().get("onBoundsChanged").count());
+        assertEquals(2, monitor.events().get("onMarkerDrag").count());
+        assertEquals(Long.valueOf(4), monitor.coalesced().get("onBoundsChanged"));
+        assertEquals(Long.valueOf(2), monitor.coalesced().get("onMarkerDrag"));
+        // SERIALIZE is the batch's, not recorded again per event
+        assertEquals(1, monitor.methods().size());
+        assertEquals(1, monitor.methods().get("onEventBatch").get(PerformanceMonitor.Phase.SERIALIZE).count());
+
+        monitor.reset(0);
+        assertTrue(monitor.coalesced().isEmpty());
+    }
+}
@@ -0,0 +1,131 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ReverseGeocoderTest {
+
+    private final ExecutorService lookupExecutor = Executors.newFixedThreadPool(2);
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void tearDown() {
+        lookupExecutor.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    private static final class Result {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<ReverseGeocoder.Status> status = new AtomicReference<>();
+        final AtomicReference<String> address = new AtomicReference<>();
+        volatile boolean cached;
+
+        ReverseGeocoder.Callback callback() {
+            return (s, a, c) -> {
+                status.set(s);
+                address.set(a);
+                cached = c;
+                latch.countDown();
+            };
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(latch.await(2, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void nearbyPositionsShareOneLookup() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        ReverseGeocoder geocoder = new ReverseGeocoder((lat, lng) -> {
+            calls.incrementAndGet();
+            return "Rue Didouche Mourad";
+        }, lookupExecutor, timer, 1000, 0.0001, 16);
+
+        Result first = new Result();
+        geocoder.resolve(36.75381, 3.05881, first.callback());
+        first.await();
+        Result second = new Result();
+        geocoder.resolve(36.75382, 3.05883, second.callback());
+        second.await();
+
+        assertEquals(ReverseGeocoder.Status.OK, first.status.get());
+        assertFalse(first.cached);
+        assertEquals("Rue Didouche Mourad", second.address.get());
+        assertTrue(second.cached);
+        assertEquals(1, calls.get());
+        assertEquals("Rue Didouche Mourad", geocoder.cachedAddress(36.75381, 3.05881));
+    }
+
+    @Test
+    public void slowLookupTimesOutButIsCachedWhenItFinishes() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        ReverseGeocoder geocoder = new ReverseGeocoder((lat, lng) -> {
+            try {
+                release.await();
+                return "Late address";
+            } catch (InterruptedException e) {
+                return null;
+            } finally {
+                finished.countDown();
+            }
+        }, lookupExecutor, timer, 50, 0.0001, 16);
+
+        Result result = new Result();
+        geocoder.resolve(36.7, 3.0, result.callback());
+        result.await();
+        assertEquals(ReverseGeocoder.Status.TIMEOUT, result.status.get());
+        assertNull(result.address.get());
+
+        release.countDown();
+        assertTrue(finished.await(2, TimeUnit.SECONDS));
+        // The cache write happens right after the lookup returns
+        Thread.sleep(20);
+        assertEquals("Late address", geocoder.cachedAddress(36.7, 3.0));
+    }
+
+    @Test
+    public void missingAddressIsCachedAsNotFound() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        ReverseGeocoder geocoder = new ReverseGeocoder((lat, lng) -> {
+            calls.incrementAndGet();
+            return null;
+        }, lookupExecutor, timer, 1000, 0.0001, 16);
+
+        Result first = new Result();
+        geocoder.resolve(0, 0, first.callback());
+        first.await();
+        Result second = new Result();
+        geocoder.resolve(0, 0, second.callback());
+        second.await();
+
+        assertEquals(ReverseGeocoder.Status.NOT_FOUND, second.status.get());
+        assertTrue(second.cached);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void lookupErrorsAreReported() throws InterruptedException {
+        ReverseGeocoder geocoder = new ReverseGeocoder((lat, lng) -> {
+            throw new java.io.IOException("offline");
+        }, lookupExecutor, timer, 1000, 0.0001, 16);
+
+        Result result = new Result();
+        geocoder.resolve(1, 1, result.callback());
+        result.await();
+
+        assertEquals(ReverseGeocoder.Status.ERROR, result.status.get());
+        assertNull(geocoder.cachedAddress(1, 1));
+    }
+}
@@ -0,0 +1,139 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ShapeSimplifierTest {
+
+    @Test
+    public void collinearPointsCollapseToEndpoints() {
+        double[] lats = { 0, 0, 0, 0, 0 };
+        double[] lngs = { 0, 1, 2, 3, 4 };
+        ShapeSimplifier simplifier = new ShapeSimplifier(lats, lngs, 5, false, 1);
+
+        assertArrayEquals(new int[] { 0, 4 }, simplifier.level(0));
+        // The last band is the full geometry
+        assertArrayEquals(new int[] { 0, 1, 2, 3, 4 }, simplifier.level(simplifier.bandCount() - 1));
+    }
+
+    @Test
+    public void matchesRecursiveDouglasPeucker() {
+        Random random = new Random(3);
+        int count = 2000;
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        double lat = 36.7;
+        double lng = 3.0;
+        for (int i = 0; i < count; i++) {
+            lat += (random.nextDouble() - 0.5) * 0.01;
+            lng += random.nextDouble() * 0.01;
+            lats[i] = lat;
+            lngs[i] = lng;
+        }
+        ShapeSimplifier simplifier = new ShapeSimplifier(lats, lngs, count, false, 1);
+
+        for (double tolerance : new double[] { 1e-4, 1e-5, 1e-6, 1e-7 }) {
+            assertArrayEquals(referenceSimplify(lats, lngs, tolerance), simplifier.simplify(tolerance));
+        }
+    }
+
+    @Test
+    public void ringNeverCollapses() {
+        // A small square far below one pixel at world zoom
+        double[] lats = { 36.7, 36.7, 36.7001, 36.7001, 36.7 };
+        double[] lngs = { 3.0, 3.0001, 3.0001, 3.0, 3.0 };
+        ShapeSimplifier simplifier = new ShapeSimplifier(lats, lngs, 5, true, 1);
+
+        assertArrayEquals(new int[] { 0, 1, 2, 3, 4 }, simplifier.level(0));
+    }
+
+    @Test
+    public void levelsGetFinerWithZoom() {
+        Random random = new Random(5);
+        int count = 5000;
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = 30 + i * 0.001 + random.nextDouble() * 0.01;
+            lngs[i] = random.nextDouble() * 0.05;
+        }
+        ShapeSimplifier simplifier = new ShapeSimplifier(lats, lngs, count, false, 1);
+
+        for (int band = 1; band < simplifier.bandCount(); band++) {
+            assertTrue(simplifier.level(band).length >= simplifier.level(band - 1).length);
+        }
+        assertEquals(count, simplifier.level(simplifier.bandCount() - 1).length);
+    }
+
+    @Test
+    public void bandFollowsZoomLimits() {
+        assertEquals(0, ShapeSimplifier.band(0));
+        assertEquals(0, ShapeSimplifier.band(4.9f));
+        assertEquals(1, ShapeSimplifier.band(5));
+        assertEquals(ShapeSimplifier.BAND_ZOOM_LIMITS.length, ShapeSimplifier.band(17));
+        assertEquals(ShapeSimplifier.BAND_ZOOM_LIMITS.length, ShapeSimplifier.band(21));
+    }
+
+    @Test
+    public void handlesVeryLongLines() {
+        // Deep enough that a recursive implementation would overflow the stack
+        int count = 200_000;
+        double[] lats = new double[count];
+        double[] lngs = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = Math.sqrt(i) * 0.01;
+            lngs[i] = i * 0.0001;
+        }
+        ShapeSimplifier simplifier = new ShapeSimplifier(lats, lngs, count, false, 1);
+
+        assertTrue(simplifier.level(0).length < 100);
+    }
+
+    // Textbook recursive Douglas–Peucker in the same Mercator space
+    private static int[] referenceSimplify(double[] lats, double[] lngs, double tolerance) {
+        int count = lats.length;
+        double[] x = new double[count];
+        double[] y = new double[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = ClusterIndex.mercatorX(lngs[i]);
+            y[i] = ClusterIndex.mercatorY(lats[i]);
+        }
+        boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count - 1] = true;
+        simplify(x, y, 0, count - 1, tolerance, keep);
+        List<Integer> kept = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                kept.add(i);
+            }
+        }
+        return kept.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void simplify(double[] x, double[] y, int first, int last, double tolerance, boolean[] keep) {
+        int farthest = -1;
+        double maxDistance = 0;
+        for (int i = first + 1; i < last; i++) {
+            double dx = x[last] - x[first];
+            double dy = y[last] - y[first];
+            double t = ((x[i] - x[first]) * dx + (y[i] - y[first]) * dy) / (dx * dx + dy * dy);
+            t = Math.max(0, Math.min(1, t));
+            double distance = Math.hypot(x[i] - x[first] - t * dx, y[i] - y[first] - t * dy);
+            if (distance > maxDistance) {
+                maxDistance = distance;
+                farthest = i;
+            }
+        }
+        if (farthest >= 0 && maxDistance > tolerance) {
+            keep[farthest] = true;
+            simplify(x, y, first, farthest, tolerance, keep);
+            simplify(x, y, farthest, last, tolerance, keep);
+        }
+    }
+}
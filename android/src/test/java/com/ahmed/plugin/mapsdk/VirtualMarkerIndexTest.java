@@ -0,0 +1,66 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class VirtualMarkerIndexTest {
+
+    // Ten markers along the equator, one per degree of longitude
+    private VirtualMarkerIndex index() {
+        List<MarkerSpec> specs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            specs.add(new MarkerSpec("m" + i, 0, i, "", false, null, null, null, null));
+        }
+        return new VirtualMarkerIndex(specs);
+    }
+
+    private static void apply(VirtualMarkerIndex index, VirtualMarkerIndex.Plan plan) {
+        for (int i : plan.removed) index.setMaterialized(i, false);
+        for (int i : plan.added) index.setMaterialized(i, true);
+    }
+
+    @Test
+    public void addsOnlyMarkersInView() {
+        VirtualMarkerIndex index = index();
+
+        VirtualMarkerIndex.Plan plan = index.plan(-1, 1.5, 1, 4.5, 100);
+
+        assertArrayEquals(new int[] { 2, 3, 4 }, plan.added);
+        assertEquals(0, plan.removed.length);
+    }
+
+    @Test
+    public void panningRemovesLeftBehindAndAddsNewOnly() {
+        VirtualMarkerIndex index = index();
+        apply(index, index.plan(-1, 1.5, 1, 4.5, 100));
+
+        VirtualMarkerIndex.Plan plan = index.plan(-1, 3.5, 1, 6.5, 100);
+
+        assertArrayEquals(new int[] { 5, 6 }, plan.added);
+        assertArrayEquals(new int[] { 2, 3 }, plan.removed);
+        apply(index, plan);
+        assertEquals(3, index.materializedCount());
+        assertTrue(index.plan(-1, 3.5, 1, 6.5, 100).isEmpty());
+    }
+
+    @Test
+    public void capKeepsMarkersAlreadyOnTheMap() {
+        VirtualMarkerIndex index = index();
+        apply(index, index.plan(-1, 6.5, 1, 9.5, 100));
+
+        VirtualMarkerIndex.Plan plan = index.plan(-1, -1, 1, 10, 5);
+
+        assertEquals(0, plan.removed.length);
+        assertEquals(2, plan.added.length);
+        apply(index, plan);
+        assertEquals(5, index.materializedCount());
+        for (int i : new int[] { 7, 8, 9 }) {
+            assertTrue(Arrays.toString(plan.added), index.isMaterialized(i));
+        }
+    }
+}
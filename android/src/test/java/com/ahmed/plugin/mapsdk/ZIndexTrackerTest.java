@@ -0,0 +1,41 @@
+package com.ahmed.plugin.mapsdk;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ZIndexTrackerTest {
+
+    @Test
+    public void nextStacksAboveHighest() {
+        ZIndexTracker tracker = new ZIndexTracker();
+        assertEquals(1f, tracker.next(), 0f);
+
+        tracker.add(1f);
+        tracker.add(2f);
+        assertEquals(3f, tracker.next(), 0f);
+    }
+
+    @Test
+    public void removingTopFallsBackToNextHighest() {
+        ZIndexTracker tracker = new ZIndexTracker();
+        tracker.add(1f);
+        tracker.add(2f);
+        tracker.add(2f);
+
+        tracker.remove(2f);
+        assertEquals(2f, tracker.highest(), 0f);
+
+        tracker.remove(2f);
+        assertEquals(1f, tracker.highest(), 0f);
+    }
+
+    @Test
+    public void negativeOrMissingValuesKeepZeroBaseline() {
+        ZIndexTracker tracker = new ZIndexTracker();
+        tracker.add(-5f);
+        tracker.remove(42f);
+
+        assertEquals(0f, tracker.highest(), 0f);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Building and serializing event payloads the way notifyListeners does (JSObject is a
+ * JSONObject). Camera and drag events are sent up to once per frame, so this is per-frame cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventPayloadBenchmark {
+
+    private final EventThrottle throttle = new EventThrottle(30, true);
+    private long nowMs;
+
+    @Benchmark
+    public String boundsChanged() {
+        JSONObject data = new JSONObject();
+        data.put("north", 36.80123456);
+        data.put("south", 36.70123456);
+        data.put("east", 3.10123456);
+        data.put("west", 3.00123456);
+        data.put("center_lat", 36.75123456);
+        data.put("center_lng", 3.05123456);
+        return data.toString();
+    }
+
+    @Benchmark
+    public String markerDrag() {
+        JSONObject data = new JSONObject();
+        data.put("mapId", "default-map");
+        data.put("markerId", "m42");
+        data.put("latitude", 36.75381);
+        data.put("longitude", 3.05881);
+        data.put("title", "Delivery point");
+        return data.toString();
+    }
+
+    @Benchmark
+    public String clusterClick() {
+        JSONArray markerIds = new JSONArray();
+        for (int i = 0; i < 100; i++) {
+            markerIds.put("m" + i);
+        }
+        JSONObject data = new JSONObject();
+        data.put("mapId", "default-map");
+        data.put("clusterId", "10/123456");
+        data.put("count", 100);
+        data.put("markerIds", markerIds);
+        return data.toString();
+    }
+
+    @Benchmark
+    public long throttleDecision() {
+        // The check every camera frame pays before deciding whether to build a payload
+        nowMs += 16;
+        long decision = throttle.offer(nowMs);
+        if (decision > 0) {
+            throttle.trailingFired(nowMs);
+        }
+        return decision;
+    }
+}
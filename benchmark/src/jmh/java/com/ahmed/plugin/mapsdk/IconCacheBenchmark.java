@@ -0,0 +1,48 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Key construction, hashing and lookup in the marker icon cache — paid once per custom marker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IconCacheBenchmark {
+
+    private static final String[] ICONS = { "map-marker", "home", "store", "school", "hospital", "fuel", "bank", "cafe" };
+
+    private final BoundedLruCache<MarkerStyleKey, Object> cache = new BoundedLruCache<>(4L * 1024 * 1024);
+    private int next;
+
+    @Setup
+    public void setUp() {
+        for (String icon : ICONS) {
+            cache.put(new MarkerStyleKey("#1E88E5", "#FFFFFF", "#1E88E5", icon, 2.75f), new Object(), 50_000);
+        }
+    }
+
+    @Benchmark
+    public int styleKeyHash() {
+        return new MarkerStyleKey("#1E88E5", "#FFFFFF", "#1E88E5", ICONS[next++ & 7], 2.75f).hashCode();
+    }
+
+    @Benchmark
+    public int concatenatedKeyHash() {
+        // Baseline: a string key built the naive way
+        return ("#1E88E5" + "|" + "#FFFFFF" + "|" + "#1E88E5" + "|" + ICONS[next++ & 7] + "|" + 2.75f).hashCode();
+    }
+
+    @Benchmark
+    public Object cacheHit() {
+        return cache.get(new MarkerStyleKey("#1E88E5", "#FFFFFF", "#1E88E5", ICONS[next++ & 7], 2.75f));
+    }
+}
@@ -0,0 +1,95 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Marker bookkeeping done on the UI thread for every add, remove and setMarkers call.
+ * The linear z-index scan is the approach addCustomMarker used before ZIndexTracker,
+ * kept as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MarkerStoreBenchmark {
+
+    private static final int TITLES = 50;
+
+    @Param({ "1000", "10000", "100000" })
+    public int markers;
+
+    private MarkerRegistry<Object> registry;
+    private List<Float> zIndexList;
+    private List<MarkerSpec> desired;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        registry = new MarkerRegistry<>();
+        zIndexList = new ArrayList<>(markers);
+        desired = new ArrayList<>(markers);
+        for (int i = 0; i < markers; i++) {
+            MarkerSpec spec = spec(i, 36 + (i % 1000) * 0.001, 3 + (i / 1000) * 0.001);
+            registry.add("m" + i, new Object(), spec, i + 1, true);
+            zIndexList.add((float) (i + 1));
+            desired.add(spec);
+        }
+        // One moved marker, so the diff has real work to report
+        desired.set(markers / 2, desired.get(markers / 2).withPosition(10, 10));
+    }
+
+    private static MarkerSpec spec(int i, double lat, double lng) {
+        return new MarkerSpec("key" + i, lat, lng, "title" + (i % TITLES), false, null,
+                null, new String[] { "#1E88E5", "#FFFFFF", "#1E88E5" }, "map-marker");
+    }
+
+    @Benchmark
+    public Object lookupById() {
+        return registry.get("m" + (next++ % markers));
+    }
+
+    @Benchmark
+    public int countByTitle() {
+        return registry.countByTitle("title" + (next++ % TITLES));
+    }
+
+    @Benchmark
+    public float nextZIndex() {
+        return registry.nextZIndex();
+    }
+
+    @Benchmark
+    public float nextZIndexLinearScan() {
+        float highest = 0;
+        for (Float zIndex : zIndexList) {
+            if (zIndex > highest) {
+                highest = zIndex;
+            }
+        }
+        return highest + 1;
+    }
+
+    @Benchmark
+    public Object replaceMarker() {
+        int i = next++ % markers;
+        MarkerRegistry.Entry<Object> entry = registry.entry("m" + i);
+        registry.add(entry.id, entry.marker, entry.spec, entry.zIndex, entry.stacked);
+        return entry;
+    }
+
+    @Benchmark
+    public MarkerDiff diffFullSet() {
+        return MarkerDiff.compute(registry, desired);
+    }
+}
@@ -0,0 +1,58 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Polyline level-of-detail builds. They run on a background executor in the plugin when a
+ * shape is added; picking a level on camera idle is an array lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ShapeSimplifierBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int vertices;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private ShapeSimplifier simplifier;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // A GPS-like route: a random walk heading east with small jitter
+        Random random = new Random(11);
+        latitudes = new double[vertices];
+        longitudes = new double[vertices];
+        double lat = 36.7;
+        double lng = 3.0;
+        for (int i = 0; i < vertices; i++) {
+            lat += (random.nextDouble() - 0.5) * 0.0005;
+            lng += random.nextDouble() * 0.0003;
+            latitudes[i] = lat;
+            longitudes[i] = lng;
+        }
+        simplifier = new ShapeSimplifier(latitudes, longitudes, vertices, false, 1.0);
+    }
+
+    @Benchmark
+    public ShapeSimplifier buildLevels() {
+        return new ShapeSimplifier(latitudes, longitudes, vertices, false, 1.0);
+    }
+
+    @Benchmark
+    public int[] simplifyAtTolerance() {
+        return simplifier.simplify(1.0 / (256 * 1024));
+    }
+}
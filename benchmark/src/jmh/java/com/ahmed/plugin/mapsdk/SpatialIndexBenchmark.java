@@ -0,0 +1,93 @@
+package com.ahmed.plugin.mapsdk;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Clustering and viewport queries. Builds run on a background executor in the plugin;
+ * queries run on the UI thread at every camera idle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpatialIndexBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int markers;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private List<MarkerSpec> specs;
+    private ClusterIndex clusterIndex;
+    private MarkerQuadTree quadTree;
+    private VirtualMarkerIndex virtualIndex;
+    private final BitSet queryResult = new BitSet();
+    private int step;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Points spread over northern Algeria, roughly 5 x 8 degrees
+        Random random = new Random(7);
+        latitudes = new double[markers];
+        longitudes = new double[markers];
+        specs = new ArrayList<>(markers);
+        for (int i = 0; i < markers; i++) {
+            latitudes[i] = 32 + random.nextDouble() * 5;
+            longitudes[i] = -1 + random.nextDouble() * 8;
+            specs.add(new MarkerSpec(null, latitudes[i], longitudes[i], "", false, null, null, null, null));
+        }
+        clusterIndex = new ClusterIndex(latitudes, longitudes, markers, 64, 0, 16);
+        quadTree = new MarkerQuadTree(latitudes, longitudes, markers);
+        virtualIndex = new VirtualMarkerIndex(specs);
+    }
+
+    @Benchmark
+    public ClusterIndex buildClusterIndex() {
+        return new ClusterIndex(latitudes, longitudes, markers, 64, 0, 16);
+    }
+
+    @Benchmark
+    public Object clustersCountryView() {
+        return clusterIndex.clustersInView(6, 30, -3, 39, 9);
+    }
+
+    @Benchmark
+    public Object clustersCityView() {
+        return clusterIndex.clustersInView(12, 36.6, 2.9, 36.9, 3.3);
+    }
+
+    @Benchmark
+    public MarkerQuadTree buildQuadTree() {
+        return new MarkerQuadTree(latitudes, longitudes, markers);
+    }
+
+    @Benchmark
+    public BitSet quadTreeCityView() {
+        queryResult.clear();
+        quadTree.query(36.6, 2.9, 36.9, 3.3, queryResult);
+        return queryResult;
+    }
+
+    @Benchmark
+    public VirtualMarkerIndex.Plan virtualPan() {
+        // Pan east in small steps, applying each plan like the plugin does
+        double west = 2 + (step++ % 40) * 0.05;
+        VirtualMarkerIndex.Plan plan = virtualIndex.plan(36, west, 37, west + 0.5, 500);
+        for (int i : plan.removed) virtualIndex.setMaterialized(i, false);
+        for (int i : plan.added) virtualIndex.setMaterialized(i, true);
+        return plan;
+    }
+}
@@ -10,6 +10,166 @@ interface Position {
   longitude: number;
 }
 
+/**
+ * A single entry of addMarkers. Entries with `iconImage` or `colors` are drawn like
+ * addCustomMarker, everything else gets the default pin like addMarker.
+ */
+export interface MarkerSpec {
+  id?: string; // stable client key, required by setMarkers
+  position?: Position; // custom marker shape
+  latitude?: number; // plain marker shape
+  longitude?: number;
+  title?: string;
+  draggable?: boolean;
+  zIndex?: number;
+  mdiIcon?: string;
+  iconImage?: string;
+  colors?: string[];
+}
+
+export interface MarkerCacheStats {
+  hits: number;
+  misses: number;
+  evictions: number;
+  entries: number;
+  bytes: number;
+  maxBytes: number;
+}
+
+export interface SetMarkersResult {
+  added: number;
+  removed: number;
+  updated: number;
+  unchanged: number;
+}
+
+export interface ClusteringOptions {
+  gridSize?: number; // cell size in screen pixels, rounded to a power of two (default 64)
+  maxZoom?: number; // markers are shown individually above this zoom (default 16)
+  minClusterSize?: number; // smallest group drawn as a cluster (default 2)
+  colors?: string[]; // cluster icon colors, same format as addCustomMarker
+}
+
+export interface ClusterClickEvent {
+  mapId: string;
+  clusterId: string;
+  count: number;
+  latitude: number;
+  longitude: number;
+  bounds: { north: number; south: number; east: number; west: number };
+  markerIds: string[];
+}
+
+export interface MarkerAddressResolvedEvent {
+  mapId: string;
+  markerId: string;
+  latitude: number;
+  longitude: number;
+  status: 'ok' | 'not_found' | 'timeout' | 'error';
+  cached: boolean;
+  address?: string;
+}
+
+export interface CameraIdleEvent {
+  mapId: string;
+  latitude: number;
+  longitude: number;
+  zoom: number;
+  bearing: number;
+  tilt: number;
+  north: number;
+  south: number;
+  east: number;
+  west: number;
+}
+
+export interface InitializeResult {
+  startType: 'cold' | 'prewarmed' | 'reused';
+  readyMs: number; // from initialize() to the native map being ready
+}
+
+export interface MapLoadedEvent extends InitializeResult {
+  mapId: string;
+  firstFrameMs: number; // from initialize() to the map finishing its first render
+}
+
+export interface LatencyStats {
+  count: number;
+  meanMs: number;
+  p50Ms: number;
+  p95Ms: number;
+  p99Ms: number;
+  maxMs: number;
+}
+
+export type PerformancePhase = 'decode' | 'dispatch' | 'mainThread' | 'background' | 'bitmap' | 'serialize';
+
+export interface PerformanceStats {
+  enabled: boolean;
+  windowMs: number; // time covered by the stats
+  mainThreadQueueDepth: number; // plugin tasks waiting for the main thread
+  maxMainThreadQueueDepth: number;
+  methods: { [method: string]: { [phase in PerformancePhase]?: LatencyStats } };
+  // count = emissions, also inside onEventBatch; latency = hand-off to the WebView (a batched
+  // event gets an equal share of its batch); coalesced = occurrences dropped by batching
+  events: { [eventName: string]: LatencyStats & { coalesced?: number } };
+  mainThreadLagMs?: number; // onPerformanceStats only
+}
+
+export interface ShapeResult {
+  shapeId: string;
+  vertexCount: number;
+  levels: number[]; // vertices drawn per zoom band, coarsest first
+}
+
+export interface HeatmapPoint {
+  latitude: number;
+  longitude: number;
+  weight?: number; // default 1
+  id?: string; // needed to replace or remove the point with updateHeatmap
+}
+
+export interface PrefetchResult {
+  total: number; // tiles in the region
+  downloaded: number;
+  cached: number; // already in the cache
+  failed: number;
+  cancelled: boolean;
+}
+
+export interface ScreenPoint {
+  x: number; // WebView CSS pixels, same origin as onMarkerClick screenX / screenY
+  y: number;
+  visible: boolean; // inside the map view
+}
+
+export interface MarkerAnimation {
+  id: string; // marker ID, or the client id given in setMarkers
+  lat: number;
+  lng: number;
+  durationMs?: number; // default 1000
+}
+
+export interface LocationFix {
+  latitude: number; // smoothed
+  longitude: number;
+  accuracy: number; // meters, of the smoothed position
+  speed?: number; // m/s, as reported by the provider
+  bearing?: number; // degrees
+  timestamp: number; // ms since epoch
+}
+
+export interface LocationUpdateEvent extends LocationFix {
+  locations: LocationFix[]; // every fix of the batch that passed the filter, oldest first
+}
+
+export type CoalescingRule = 'all' | 'latest' | 'latestPerMarker';
+
+export interface EventBatch {
+  events: { type: string; data: any }[]; // in the order they were raised
+  coalesced: number; // events merged into a later one of the same kind
+}
+
 export interface CapacitorMapSdkPlugin {
   initialize(options: {
     apiKey?: string; // Optionally u can set it in the manifest file
@@ -21,9 +181,30 @@ export interface CapacitorMapSdkPlugin {
       top: number;
       bottom: number;
     };
-  }): Promise<void>;
+    // Container bounds in CSS pixels; skips measuring the containerId element
+    bounds?: { x: number; y: number; width: number; height: number };
+  }): Promise<InitializeResult>;
 
-  addMarker(options: { latitude: number; longitude: number; title?: string; draggable: boolean }): Promise<void>;
+  /**
+   * Create the native map ahead of time (e.g. on the screen before the map screen) so
+   * initialize only has to show it.
+   */
+  prewarm(): Promise<{ readyMs: number }>;
+
+  /**
+   * Load the marker icon font ahead of the first addCustomMarker. Otherwise it is loaded
+   * in the background on first use.
+   */
+  preloadAssets(): Promise<{ alreadyLoaded: boolean; loadMs: number }>;
+
+  addMarker(options: {
+    latitude: number;
+    longitude: number;
+    title?: string;
+    draggable: boolean;
+    zIndex?: number;
+    id?: string;
+  }): Promise<{ markerId: string; handle: number }>;
 
   addCustomMarker(options: {
     position: Position;
@@ -32,6 +213,164 @@ export interface CapacitorMapSdkPlugin {
     colors?: string[]; // use this in case of using default custom marker
     title?: string;
     draggable?: boolean;
+    zIndex?: number; // explicit z-index, skips automatic stacking
+    id?: string; // stable client key, see setMarkers
+  }): Promise<{ markerId: string; handle: number }>;
+
+  /**
+   * Add many markers in a single bridge call. Marker IDs and handles are returned in input order.
+   */
+  addMarkers(options: { markers: MarkerSpec[] }): Promise<{ markerIds: string[]; handles: number[] }>;
+
+  /**
+   * Set the byte budget of the generated marker icon cache (default 4MB).
+   */
+  configureMarkerCache(options: { maxBytes: number }): Promise<MarkerCacheStats>;
+
+  getMarkerCacheStats(): Promise<MarkerCacheStats>;
+
+  /**
+   * Reconcile the keyed markers on the map with the given set. Markers are matched by `id`;
+   * changed ones are updated in place, missing ones removed and new ones added.
+   * Markers added without an `id` are not touched.
+   */
+  setMarkers(options: { markers: MarkerSpec[] }): Promise<SetMarkersResult>;
+
+  /**
+   * Move markers to new positions at a constant speed. A marker that is still moving heads
+   * for its new target from where it is now. `missing` lists the ids that matched no marker.
+   */
+  animateMarkers(options: { updates: MarkerAnimation[] }): Promise<{ animated: number; missing: string[] }>;
+
+  /**
+   * Handles of markers by marker ID or client id, 0 for ids that match no marker.
+   * Handles identify markers in updateMarkerPositions.
+   */
+  getMarkerHandles(options: { ids: string[] }): Promise<{ handles: number[] }>;
+
+  /**
+   * Move many markers in one call. `data` is built with packMarkerPositions. With `durationMs`
+   * the markers are animated as in animateMarkers, otherwise they jump.
+   */
+  updateMarkerPositions(options: {
+    data: string;
+    durationMs?: number;
+  }): Promise<{ updated: number; missing: number }>;
+
+  removeMarker(options: { markerId: string }): Promise<{ removed: boolean }>;
+
+  removeMarkers(options: { markerIds: string[] }): Promise<{ removedCount: number }>;
+
+  /**
+   * Group nearby markers into clusters, recomputed natively whenever the camera settles.
+   * Markers titled "userMarker" are never clustered.
+   */
+  enableClustering(options?: ClusteringOptions): Promise<void>;
+
+  disableClustering(): Promise<void>;
+
+  /**
+   * Hand over a large marker set (tens of thousands) of which only the markers near the
+   * viewport are put on the map. Replaces any previous virtual set; independent of the
+   * markers added with addMarker / setMarkers.
+   */
+  setVirtualMarkers(options: {
+    markers: MarkerSpec[];
+    margin?: number; // extra area around the viewport, as a fraction of its size (default 0.5)
+    maxVisible?: number; // most markers on the map at once (default 500)
+    batchSize?: number; // markers added or removed per frame (default 50)
+  }): Promise<{ count: number }>;
+
+  clearVirtualMarkers(): Promise<void>;
+
+  /**
+   * Draw a polyline. Simplified levels of detail are built once and swapped as the zoom changes.
+   */
+  addPolyline(options: {
+    points: Position[];
+    id?: string; // replaces an existing shape with this id
+    color?: string; // default '#000000'
+    width?: number; // dp, default 4
+    zIndex?: number;
+    geodesic?: boolean;
+  }): Promise<ShapeResult>;
+
+  addPolygon(options: {
+    points: Position[];
+    holes?: Position[][];
+    id?: string;
+    strokeColor?: string; // default '#000000'
+    fillColor?: string; // default transparent
+    strokeWidth?: number; // dp, default 4
+    zIndex?: number;
+  }): Promise<ShapeResult>;
+
+  removeShape(options: { shapeId: string }): Promise<{ removed: boolean }>;
+
+  /**
+   * Draw a heatmap as a tile layer rendered natively.
+   */
+  addHeatmap(options: {
+    points: HeatmapPoint[];
+    id?: string;
+    radius?: number; // dp, default 20
+    gradient?: { colors: string[]; startPoints: number[] }; // startPoints ascending in (0, 1]
+    opacity?: number; // default 0.7
+    maxIntensity?: number; // intensity drawn with the last color, estimated per zoom by default
+    zIndex?: number;
+  }): Promise<{ heatmapId: string; pointCount: number }>;
+
+  /**
+   * Add, replace (same id) or remove points; only the tiles around them are redrawn.
+   */
+  updateHeatmap(options: {
+    heatmapId: string;
+    add?: HeatmapPoint[];
+    remove?: string[];
+  }): Promise<{ pointCount: number; invalidatedTiles: number }>;
+
+  removeHeatmap(options: { heatmapId: string }): Promise<{ removed: boolean }>;
+
+  /**
+   * Show raster tiles from a URL template, cached in memory and on disk across sessions.
+   */
+  addTileLayer(options: {
+    urlTemplate: string; // with {x}, {y} and {z}
+    id?: string;
+    cacheSizeMb?: number; // disk cache size, default 100
+    tileSize?: number; // pixels, default 256
+    zIndex?: number;
+    transparency?: number;
+  }): Promise<{ layerId: string }>;
+
+  removeTileLayer(options: { layerId: string }): Promise<{ removed: boolean }>;
+
+  /**
+   * Fill a tile layer's cache for an area ahead of time. Resolves when done.
+   */
+  prefetchRegion(options: {
+    layerId: string;
+    bounds: { north: number; south: number; east: number; west: number };
+    minZoom: number;
+    maxZoom: number;
+    concurrency?: number; // parallel downloads, default 4
+  }): Promise<PrefetchResult>;
+
+  /**
+   * Turn per-method latency instrumentation on or off. With intervalMs the stats are also
+   * sent periodically as onPerformanceStats.
+   */
+  setPerformanceMonitoring(options: { enabled: boolean; intervalMs?: number }): Promise<void>;
+
+  getPerformanceStats(options?: { reset?: boolean }): Promise<PerformanceStats>;
+
+  /**
+   * Deliver all events raised within a frame as one onEventBatch instead of separately.
+   * While enabled, the individual event listeners are not called.
+   */
+  setEventBatching(options: {
+    enabled: boolean;
+    coalesce?: { [eventName: string]: CoalescingRule };
   }): Promise<void>;
 
   clearExpectMarkers(options: { titles: string[] }): Promise<void>;
@@ -44,11 +383,44 @@ export interface CapacitorMapSdkPlugin {
 
   setZoomLimits(options: { maxZoom: number; minZoom: number }): Promise<void>;
 
+  /**
+   * Control how often onMarkerDrag is sent while a marker is dragged.
+   */
+  setDragEventOptions(options: {
+    maxRate?: number; // events per second, 0 = every drag step (default)
+    suppressIntermediate?: boolean; // only send onMarkerDragStart / onMarkerDragEnd
+  }): Promise<void>;
+
+  /**
+   * Control how often onBoundsChanged is sent while the camera moves.
+   */
+  setCameraEventOptions(options: {
+    maxRate?: number; // events per second, 0 = every frame (default)
+    trailing?: boolean; // deliver the last position of a burst (default true)
+    idleOnly?: boolean; // only send onBoundsChanged when the camera settles
+  }): Promise<void>;
+
+  /**
+   * Include a `debug` object with the raw view locations in onMarkerClick (off by default).
+   */
+  setClickEventOptions(options: { debug?: boolean }): Promise<void>;
+
+  /**
+   * Convert many coordinates to WebView pixels at once, e.g. to place HTML overlays.
+   */
+  projectToScreen(options: { points: Position[] }): Promise<{ points: ScreenPoint[] }>;
+
+  /**
+   * Convert WebView pixels back to coordinates.
+   */
+  projectToLatLng(options: { points: { x: number; y: number }[] }): Promise<{ points: Position[] }>;
+
   /**
    * Destroy the map and clean up resources
-   * Should be called when navigating away from the map view
+   * Should be called when navigating away from the map view.
+   * With `keep: true` the native map is hidden and reused by the next initialize.
    */
-  destroyMap(): Promise<void>;
+  destroyMap(options?: { keep?: boolean }): Promise<void>;
 
   isReady(): Promise<{ value: boolean }>;
 
@@ -61,6 +433,33 @@ export interface CapacitorMapSdkPlugin {
 
   disableMapInteraction(): Promise<void>;
 
+  /**
+   * The device location; also moves the camera there. Calls made while a lookup is running
+   * share its result. With `maxAgeMs` a fix at most that old is returned without a new lookup.
+   */
+  getCurrentLocation(options?: { maxAgeMs?: number }): Promise<{
+    latitude: number;
+    longitude: number;
+    accuracy: number;
+    timestamp: number;
+    cached: boolean; // answered from a recent fix
+  }>;
+
+  /**
+   * Continuous location updates, emitted as onLocationUpdate after outlier rejection,
+   * smoothing and the minDistanceM gate. Pauses while the app is in the background unless
+   * `background` is set. Replaces any tracking already running.
+   */
+  startLocationTracking(options?: {
+    intervalMs?: number; // default 1000
+    maxWaitMs?: number; // let the provider batch fixes for up to this long (default 0)
+    minDistanceM?: number; // default 0
+    priority?: 'high' | 'balanced' | 'low' | 'passive'; // default 'high'
+    background?: boolean; // default false
+  }): Promise<void>;
+
+  stopLocationTracking(): Promise<{ wasTracking: boolean }>;
+
   // addListener(eventName: 'onMarkerClick', listenerFunc: (event: MarkerEventData) => void): PluginListenerHandle;
   addListener(
     eventName:
@@ -68,7 +467,14 @@ export interface CapacitorMapSdkPlugin {
       | 'onMarkerDrag'
       | 'onMarkerDragStart'
       | 'onMarkerDragEnd'
+      | 'onMarkerAddressResolved'
       | 'onBoundsChanged'
+      | 'onClusterClick'
+      | 'onCameraIdle'
+      | 'onMapLoaded'
+      | 'onPerformanceStats'
+      | 'onEventBatch'
+      | 'onLocationUpdate'
       | 'onMapClick',
     listenerFunc: (data: any) => void,
   ): Promise<{ remove: () => void }>;
@@ -7,4 +7,5 @@ const CapacitorMapSdk = registerPlugin<CapacitorMapSdkPlugin>('CapacitorMapSdk',
 });
 
 export * from './definitions';
+export * from './packing';
 export { CapacitorMapSdk };
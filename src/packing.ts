@@ -0,0 +1,29 @@
+/**
+ * Pack marker positions for updateMarkerPositions: n (latitude, longitude) Float64 pairs
+ * followed by n Int32 marker handles, little-endian, as base64.
+ */
+export function packMarkerPositions(
+  handles: ArrayLike<number>,
+  latitudes: ArrayLike<number>,
+  longitudes: ArrayLike<number>,
+): string {
+  const count = handles.length;
+  if (latitudes.length !== count || longitudes.length !== count) {
+    throw new Error('handles, latitudes and longitudes must have the same length');
+  }
+  const buffer = new ArrayBuffer(count * 20);
+  const view = new DataView(buffer);
+  for (let i = 0; i < count; i++) {
+    view.setFloat64(i * 16, latitudes[i], true);
+    view.setFloat64(i * 16 + 8, longitudes[i], true);
+    view.setInt32(count * 16 + i * 4, handles[i], true);
+  }
+
+  // btoa takes a binary string; build it in chunks to stay under the argument limit
+  const bytes = new Uint8Array(buffer);
+  let binary = '';
+  for (let offset = 0; offset < bytes.length; offset += 0x8000) {
+    binary += String.fromCharCode.apply(null, Array.from(bytes.subarray(offset, offset + 0x8000)));
+  }
+  return btoa(binary);
+}
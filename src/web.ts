@@ -1,6 +1,15 @@
 import { WebPlugin } from '@capacitor/core';
 
-import type { CapacitorMapSdkPlugin } from './definitions';
+import type {
+  CapacitorMapSdkPlugin,
+  InitializeResult,
+  MarkerCacheStats,
+  PerformanceStats,
+  PrefetchResult,
+  ScreenPoint,
+  SetMarkersResult,
+  ShapeResult,
+} from './definitions';
 
 export class CapacitorMapSdkWeb extends WebPlugin implements CapacitorMapSdkPlugin {
   enableMapInteraction(): Promise<void> {
@@ -11,7 +20,19 @@ export class CapacitorMapSdkWeb extends WebPlugin implements CapacitorMapSdkPlug
     throw new Error('Method not implemented.');
   }
 
-  addCustomMarker(): Promise<void> {
+  addCustomMarker(): Promise<{ markerId: string; handle: number }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  addMarkers(): Promise<{ markerIds: string[]; handles: number[] }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  configureMarkerCache(): Promise<MarkerCacheStats> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  getMarkerCacheStats(): Promise<MarkerCacheStats> {
     throw new Error('CapacitorMapSdk is not implemented on web');
   }
 
@@ -19,6 +40,14 @@ export class CapacitorMapSdkWeb extends WebPlugin implements CapacitorMapSdkPlug
     throw new Error('CapacitorMapSdk is not implemented on web');
   }
 
+  setDragEventOptions(): Promise<void> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  setCameraEventOptions(): Promise<void> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
   isReady(): Promise<{ value: boolean }> {
     throw new Error('CapacitorMapSdk is not implemented on web');
   }
@@ -26,6 +55,124 @@ export class CapacitorMapSdkWeb extends WebPlugin implements CapacitorMapSdkPlug
   clearMarkers(): Promise<void> {
     throw new Error('CapacitorMapSdk is not implemented on web');
   }
+  setMarkers(): Promise<SetMarkersResult> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  animateMarkers(): Promise<{ animated: number; missing: string[] }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  getMarkerHandles(): Promise<{ handles: number[] }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  updateMarkerPositions(): Promise<{ updated: number; missing: number }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  getCurrentLocation(): Promise<{
+    latitude: number;
+    longitude: number;
+    accuracy: number;
+    timestamp: number;
+    cached: boolean;
+  }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  startLocationTracking(): Promise<void> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  stopLocationTracking(): Promise<{ wasTracking: boolean }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  removeMarker(): Promise<{ removed: boolean }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  removeMarkers(): Promise<{ removedCount: number }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  enableClustering(): Promise<void> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  disableClustering(): Promise<void> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  setVirtualMarkers(): Promise<{ count: number }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  clearVirtualMarkers(): Promise<void> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  setPerformanceMonitoring(): Promise<void> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  getPerformanceStats(): Promise<PerformanceStats> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  addPolyline(): Promise<ShapeResult> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  addPolygon(): Promise<ShapeResult> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  removeShape(): Promise<{ removed: boolean }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  addHeatmap(): Promise<{ heatmapId: string; pointCount: number }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  updateHeatmap(): Promise<{ pointCount: number; invalidatedTiles: number }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  removeHeatmap(): Promise<{ removed: boolean }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  addTileLayer(): Promise<{ layerId: string }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  removeTileLayer(): Promise<{ removed: boolean }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  prefetchRegion(): Promise<PrefetchResult> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  setClickEventOptions(): Promise<void> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  projectToScreen(): Promise<{ points: ScreenPoint[] }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  projectToLatLng(): Promise<{ points: { latitude: number; longitude: number }[] }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  setEventBatching(): Promise<void> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
   clearExpectMarkers(): Promise<void> {
     throw new Error('CapacitorMapSdk is not implemented on web');
   }
@@ -34,11 +181,19 @@ export class CapacitorMapSdkWeb extends WebPlugin implements CapacitorMapSdkPlug
     throw new Error('CapacitorMapSdk is not implemented on web');
   }
 
-  async initialize(): Promise<void> {
+  async initialize(): Promise<InitializeResult> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  async prewarm(): Promise<{ readyMs: number }> {
+    throw new Error('CapacitorMapSdk is not implemented on web');
+  }
+
+  async preloadAssets(): Promise<{ alreadyLoaded: boolean; loadMs: number }> {
     throw new Error('CapacitorMapSdk is not implemented on web');
   }
 
-  async addMarker(): Promise<void> {
+  async addMarker(): Promise<{ markerId: string; handle: number }> {
     throw new Error('CapacitorMapSdk is not implemented on web');
   }
 